@@ -0,0 +1,94 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Comparison of Filter.containing implementations over a TweetCorpus:
+ *   - the original lowercase-and-split loop (also variant 3 in Filter.java)
+ *   - the stream variant (variant 1 in Filter.java)
+ *   - the regex variant (variant 2 in Filter.java), which uses \b word
+ *     boundaries and so does not quite meet the spec
+ *   - the current Filter.containing, which scans with WordMatcher
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ContainingBenchmark {
+
+    @Benchmark
+    public List<Tweet> splitLoop(TweetCorpus corpus) {
+        Set<String> wordSet = new HashSet<>();
+        for (String word : corpus.words) {
+            wordSet.add(word.toLowerCase());
+        }
+
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : corpus.list) {
+            String[] tweetWords = tweet.getText().toLowerCase().split("\\s+");
+            for (String tweetWord : tweetWords) {
+                if (wordSet.contains(tweetWord)) {
+                    result.add(tweet);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Tweet> streams(TweetCorpus corpus) {
+        Set<String> wordSet = corpus.words.stream()
+            .map(String::toLowerCase)
+            .collect(Collectors.toSet());
+
+        return corpus.list.stream()
+            .filter(tweet -> {
+                String[] tweetWords = tweet.getText().toLowerCase().split("\\s+");
+                for (String tweetWord : tweetWords) {
+                    if (wordSet.contains(tweetWord)) {
+                        return true;
+                    }
+                }
+                return false;
+            })
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Tweet> regex(TweetCorpus corpus) {
+        Set<String> wordSet = new HashSet<>();
+        for (String word : corpus.words) {
+            wordSet.add(word.toLowerCase());
+        }
+
+        return corpus.list.stream()
+            .filter(tweet -> {
+                String tweetTextLower = tweet.getText().toLowerCase();
+                return wordSet.stream().anyMatch(word -> tweetTextLower.matches(".*\\b" + word + "\\b.*"));
+            })
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Tweet> wordMatcher(TweetCorpus corpus) {
+        return Filter.containing(corpus.list, corpus.words);
+    }
+}
@@ -0,0 +1,80 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-timestamp cost of created_at parsing strategies:
+ *   - the TweetReader path, which builds a new DateTimeFormatter per tweet
+ *   - ZonedDateTime.parse with a shared DateTimeFormatter
+ *   - CreatedAtParser
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CreatedAtParserBenchmark {
+
+    private static final DateTimeFormatter FORMAT =
+            DateTimeFormatter.ofPattern(CreatedAtParser.PATTERN, Locale.US);
+
+    /* Number of distinct timestamps cycled through, a power of two. */
+    private static final int COUNT = 4096;
+
+    private final String[] timestamps = new String[COUNT];
+    private int next;
+
+    /**
+     * Generate timestamps spread over a year, in random UTC offsets.
+     */
+    @Setup
+    public void generate() {
+        Random random = new Random(6005);
+        long base = Instant.parse("2016-02-17T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < COUNT; i++) {
+            ZoneOffset offset = ZoneOffset.ofHours(random.nextInt(25) - 12);
+            timestamps[i] = Instant.ofEpochSecond(base + random.nextInt(365 * 86400)).atOffset(offset).format(FORMAT);
+        }
+    }
+
+    private String nextTimestamp() {
+        return timestamps[next++ & (COUNT - 1)];
+    }
+
+    @Benchmark
+    public long formatterPerTweet() {
+        return ZonedDateTime.parse(nextTimestamp(),
+                DateTimeFormatter.ofPattern(CreatedAtParser.PATTERN, Locale.US)).toEpochSecond();
+    }
+
+    @Benchmark
+    public long sharedFormatter() {
+        return ZonedDateTime.parse(nextTimestamp(), FORMAT).toEpochSecond();
+    }
+
+    @Benchmark
+    public long createdAtParser() {
+        return CreatedAtParser.parseEpochSecond(nextTimestamp());
+    }
+}
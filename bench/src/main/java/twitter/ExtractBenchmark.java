@@ -0,0 +1,106 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Extract.getTimespan and Extract.getMentionedUsers over a TweetCorpus,
+ * including the getTimespan variants left commented out in Extract.java.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExtractBenchmark {
+
+    @Benchmark
+    public Timespan getTimespan(TweetCorpus corpus) {
+        return Extract.getTimespan(corpus.list);
+    }
+
+    @Benchmark
+    public Timespan getTimespanStore(TweetCorpus corpus) {
+        return Extract.getTimespan(corpus.store);
+    }
+
+    /*
+     * Variant 1 in Extract.java: loop from Instant.MAX and Instant.MIN.
+     */
+    @Benchmark
+    public Timespan getTimespanMinMaxLoop(TweetCorpus corpus) {
+        Instant start = Instant.MAX;
+        Instant end = Instant.MIN;
+        for (Tweet tweet : corpus.list) {
+            Instant timestamp = tweet.getTimestamp();
+            if (timestamp.isBefore(start)) {
+                start = timestamp;
+            }
+            if (timestamp.isAfter(end)) {
+                end = timestamp;
+            }
+        }
+        return new Timespan(start, end);
+    }
+
+    /*
+     * Variant 2 in Extract.java: collect the timestamps, then stream min and max.
+     */
+    @Benchmark
+    public Timespan getTimespanCollectors(TweetCorpus corpus) {
+        List<Instant> timestamps = corpus.list.stream()
+            .map(Tweet::getTimestamp)
+            .collect(Collectors.toList());
+        Instant start = timestamps.stream().min(Instant::compareTo).orElse(Instant.now());
+        Instant end = timestamps.stream().max(Instant::compareTo).orElse(Instant.now());
+        return new Timespan(start, end);
+    }
+
+    /*
+     * Variant 3 in Extract.java: sort the timestamps in a TreeSet.
+     */
+    @Benchmark
+    public Timespan getTimespanTreeSet(TweetCorpus corpus) {
+        TreeSet<Instant> timestamps = new TreeSet<>();
+        for (Tweet tweet : corpus.list) {
+            timestamps.add(tweet.getTimestamp());
+        }
+        return new Timespan(timestamps.first(), timestamps.last());
+    }
+
+    /*
+     * Scans every text on each invocation; see
+     * SocialNetworkBenchmark.mentionedUsersThenFollowsGraph for the shared
+     * MentionCache path.
+     */
+    @Benchmark
+    public Set<String> getMentionedUsers(TweetCorpus corpus) {
+        return Extract.getMentionedUsers(corpus.list);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsersStore(TweetCorpus corpus) {
+        return Extract.getMentionedUsers(corpus.store);
+    }
+
+    @Benchmark
+    public BitSet getMentionedUserIds(TweetCorpus corpus) {
+        return Extract.getMentionedUserIds(corpus.list, new UserDictionary());
+    }
+}
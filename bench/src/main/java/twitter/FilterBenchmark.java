@@ -0,0 +1,81 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Every Filter method over a TweetCorpus, on lists and on TweetStores. See
+ * ContainingBenchmark for the alternative implementations of containing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterBenchmark {
+
+    /**
+     * The corpus's authors interned in a dictionary, as a column of ids.
+     */
+    @State(Scope.Benchmark)
+    public static class Dictionary {
+        int[] authorIds;
+        int author;
+
+        @Setup
+        public void intern(TweetCorpus corpus) {
+            UserDictionary dictionary = new UserDictionary();
+            authorIds = dictionary.internAuthors(corpus.list);
+            author = dictionary.id(corpus.author);
+        }
+    }
+
+    @Benchmark
+    public List<Tweet> writtenBy(TweetCorpus corpus) {
+        return Filter.writtenBy(corpus.list, corpus.author);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenByStore(TweetCorpus corpus) {
+        return Filter.writtenBy(corpus.store, corpus.author);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenById(TweetCorpus corpus, Dictionary dictionary) {
+        return Filter.writtenBy(corpus.list, dictionary.authorIds, dictionary.author);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan(TweetCorpus corpus) {
+        return Filter.inTimespan(corpus.list, corpus.middle);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespanStore(TweetCorpus corpus) {
+        return Filter.inTimespan(corpus.store, corpus.middle);
+    }
+
+    @Benchmark
+    public List<Tweet> containing(TweetCorpus corpus) {
+        return Filter.containing(corpus.list, corpus.words);
+    }
+
+    @Benchmark
+    public List<Tweet> containingStore(TweetCorpus corpus) {
+        return Filter.containing(corpus.store, corpus.words);
+    }
+}
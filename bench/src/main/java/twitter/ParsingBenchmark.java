@@ -0,0 +1,73 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a TweetCorpus written as a JSON array file, with TweetReader and
+ * with the streaming and parallel readers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParsingBenchmark {
+
+    /**
+     * The corpus in a temporary file, in the format served by
+     * Main.SAMPLE_SERVER.
+     */
+    @State(Scope.Benchmark)
+    public static class CorpusFile {
+        Path file;
+
+        @Setup
+        public void write(TweetCorpus corpus) throws IOException {
+            file = Files.createTempFile("tweets", ".json");
+            corpus.generator.writeJson(file);
+        }
+
+        @TearDown
+        public void delete() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public List<Tweet> tweetReader(CorpusFile corpus) throws IOException {
+        return TweetReader.readTweetsFromWeb(corpus.file.toUri().toURL());
+    }
+
+    @Benchmark
+    public List<Tweet> tweetStreamReader(CorpusFile corpus) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(corpus.file, StandardCharsets.UTF_8)) {
+            return TweetStreamReader.readTweets(reader);
+        }
+    }
+
+    @Benchmark
+    public List<Tweet> tweetFileReader(CorpusFile corpus) throws IOException {
+        return TweetFileReader.readTweetsFromFile(corpus.file);
+    }
+}
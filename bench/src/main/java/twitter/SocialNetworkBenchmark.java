@@ -0,0 +1,84 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SocialNetwork follows-graph construction and influencer ranking over a
+ * TweetCorpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SocialNetworkBenchmark {
+
+    /** Number of influencers asked for by the top-k rankings. */
+    private static final int K = 10;
+
+    /**
+     * The corpus's follows graph, built once for the ranking benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class Graph {
+        Map<String, Set<String>> followsGraph;
+
+        @Setup
+        public void build(TweetCorpus corpus) {
+            followsGraph = SocialNetwork.guessFollowsGraph(corpus.list);
+        }
+    }
+
+    /*
+     * Scans every text on each invocation; no state survives between
+     * invocations, so warmup does not turn this into a cache benchmark.
+     */
+    @Benchmark
+    public Map<String, Set<String>> guessFollowsGraph(TweetCorpus corpus) {
+        return SocialNetwork.guessFollowsGraph(corpus.list);
+    }
+
+    /*
+     * Main's exact-users path: both passes share a MentionCache made fresh
+     * for each invocation, so each text is scanned exactly once per
+     * invocation, as in a real run.
+     */
+    @Benchmark
+    public Map<String, Set<String>> mentionedUsersThenFollowsGraph(TweetCorpus corpus) {
+        MentionCache mentions = new MentionCache(corpus.list);
+        Extract.getMentionedUsers(mentions);
+        return SocialNetwork.guessFollowsGraph(mentions);
+    }
+
+    @Benchmark
+    public List<String> influencers(Graph graph) {
+        return SocialNetwork.influencers(graph.followsGraph);
+    }
+
+    @Benchmark
+    public List<String> influencersTopK(Graph graph) {
+        return SocialNetwork.influencers(graph.followsGraph, K);
+    }
+
+    @Benchmark
+    public List<String> influencersByPageRank(Graph graph) {
+        return SocialNetwork.influencersByPageRank(graph.followsGraph, K);
+    }
+}
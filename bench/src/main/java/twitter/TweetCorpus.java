@@ -0,0 +1,70 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state: a reproducible corpus of synthetic tweets, shared by the
+ * benchmarks in this module and parameterized by its size.
+ *
+ * Build and run the benchmarks from the project root with:
+ *   mvn -DskipTests package
+ *   java -jar bench/target/benchmarks.jar [regex] [-p tweets=1000,100000]
+ *        -rf json -rff jmh-result.json
+ * -rf json writes the results as JSON for regression tracking; -p narrows
+ * the corpus sizes, which by default run from 1K to 10M tweets. The largest
+ * corpora need a large heap, e.g. -jvmArgs -Xmx16g.
+ */
+@State(Scope.Benchmark)
+public class TweetCorpus {
+
+    /** Number of tweets in the corpus. */
+    @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+    public int tweets;
+
+    /** Generator of the corpus. */
+    CorpusGenerator generator;
+
+    /** The tweets, in increasing id and timestamp order. */
+    List<Tweet> list;
+
+    /** The same tweets in columnar form. */
+    TweetStore store;
+
+    /** Timespan covering the middle half of the tweets' timestamps. */
+    Timespan middle;
+
+    /** A moderately active author, in a different case. */
+    String author;
+
+    /** Words matched by Filter.containing in some of the tweets. */
+    List<String> words;
+
+    /**
+     * Generate the corpus with CorpusGenerator's default settings over a
+     * week, with one author per ten tweets.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        int authors = Math.max(100, tweets / 10);
+        Instant start = Instant.parse("2016-02-17T00:00:00Z");
+        generator = new CorpusGenerator.Builder(6005).count(tweets).authors(authors)
+                .time(start, Duration.ofDays(7), CorpusGenerator.TimeDistribution.SEQUENTIAL).build();
+        list = generator.generate();
+        store = TweetStore.of(list);
+        middle = new Timespan(start.plus(Duration.ofHours(42)), start.plus(Duration.ofHours(126)));
+        author = generator.author(authors / 100).toUpperCase();
+        words = Arrays.asList("Obama", "ALGORITHMS");
+    }
+}
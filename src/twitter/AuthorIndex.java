@@ -0,0 +1,172 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable index of a corpus of tweets by author, for answering many
+ * Filter.writtenBy queries over the same corpus. Each case-folded username
+ * maps to the increasing positions of its tweets, so a lookup costs time
+ * proportional to the number of tweets it returns.
+ *
+ * Usernames are compared case-insensitively, as Tweet.getAuthor() specifies.
+ * The index refers to the corpus it was built from, which must not be
+ * modified while the index is in use.
+ */
+public class AuthorIndex {
+
+    private final Map<String, Integer> authorIds;
+    private final int[] offsets;
+    private final int[] postings;
+    private final IntFunction<Tweet> corpus;
+    /* Rep invariant:
+     *    keys of authorIds are lowercase, values are 0..authorIds.size()-1
+     *    offsets has authorIds.size()+1 nondecreasing elements,
+     *      offsets[0] == 0 and offsets[last] == postings.length
+     *    each postings[offsets[a]..offsets[a+1]) is strictly increasing
+     * Abstraction function:
+     *    represents the corpus corpus.apply(0..postings.length-1), where the
+     *    tweets whose case-folded author is u are at positions
+     *    postings[offsets[authorIds[u]]..offsets[authorIds[u]+1])
+     */
+
+    private AuthorIndex(int size, IntFunction<String> authorOf, IntFunction<Tweet> corpus) {
+        this.corpus = corpus;
+        this.authorIds = new HashMap<>();
+        int[] tweetAuthors = new int[size];
+        int[] counts = new int[16];
+        for (int position = 0; position < size; position++) {
+            String author = fold(authorOf.apply(position));
+            Integer id = authorIds.get(author);
+            if (id == null) {
+                id = authorIds.size();
+                authorIds.put(author, id);
+                if (id == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+            }
+            tweetAuthors[position] = id;
+            counts[id]++;
+        }
+
+        int authorCount = authorIds.size();
+        this.offsets = new int[authorCount + 1];
+        for (int id = 0; id < authorCount; id++) {
+            offsets[id + 1] = offsets[id] + counts[id];
+        }
+        this.postings = new int[size];
+        int[] next = Arrays.copyOf(offsets, authorCount);
+        for (int position = 0; position < size; position++) {
+            postings[next[tweetAuthors[position]]++] = position;
+        }
+    }
+
+    /**
+     * Index a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids, not modified by this
+     *               method or while the index is in use
+     * @return an index over tweets
+     */
+    public static AuthorIndex of(List<Tweet> tweets) {
+        return new AuthorIndex(tweets.size(), position -> tweets.get(position).getAuthor(), tweets::get);
+    }
+
+    /**
+     * Index the tweets in a store.
+     *
+     * @param store store of tweets with distinct ids, not modified by this
+     *              method; tweets appended later are not indexed
+     * @return an index over the tweets currently in store
+     */
+    public static AuthorIndex of(TweetStore store) {
+        return new AuthorIndex(store.size(), store::getAuthor, store::getTweet);
+    }
+
+    /*
+     * Case-fold a username; usernames are ASCII, so this is locale-independent.
+     */
+    private static String fold(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username Twitter username, required to be a valid Twitter
+     *                 username as defined by Tweet.getAuthor()'s spec.
+     * @return all and only the tweets in the corpus whose author is username,
+     *         compared case-insensitively, in the same order as in the corpus.
+     */
+    public List<Tweet> writtenBy(String username) {
+        int[] positions = positionsWrittenBy(username);
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(corpus.apply(position));
+        }
+        return result;
+    }
+
+    /**
+     * Find tweets written by each of several users.
+     *
+     * @param usernames Twitter usernames, each required to be a valid Twitter
+     *                  username as defined by Tweet.getAuthor()'s spec.
+     * @return a map from each distinct string in usernames, in iteration
+     *         order of usernames, to writtenBy(that username).
+     */
+    public Map<String, List<Tweet>> writtenBy(Collection<String> usernames) {
+        Map<String, List<Tweet>> result = new LinkedHashMap<>();
+        for (String username : usernames) {
+            if (!result.containsKey(username)) {
+                result.put(username, writtenBy(username));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the positions of tweets written by a particular user.
+     *
+     * @param username Twitter username, required to be a valid Twitter
+     *                 username as defined by Tweet.getAuthor()'s spec.
+     * @return the positions in the corpus of all and only the tweets whose
+     *         author is username, compared case-insensitively, in increasing
+     *         order.
+     */
+    public int[] positionsWrittenBy(String username) {
+        Integer id = authorIds.get(fold(username));
+        if (id == null) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(postings, offsets[id], offsets[id + 1]);
+    }
+
+    /**
+     * @param username Twitter username
+     * @return number of tweets in the corpus written by username, compared
+     *         case-insensitively
+     */
+    public int count(String username) {
+        Integer id = authorIds.get(fold(username));
+        return id == null ? 0 : offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * @return number of distinct authors in the corpus, compared
+     *         case-insensitively
+     */
+    public int authorCount() {
+        return authorIds.size();
+    }
+}
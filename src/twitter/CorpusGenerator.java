@@ -0,0 +1,561 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Deterministic generator of synthetic tweets, for benchmarks and load tests
+ * at sizes the sample server cannot provide.
+ *
+ * Each tweet is a pure function of the seed and its index, so a corpus of
+ * any size can be streamed, in order or in parallel, without holding it in
+ * memory, and the same seed always gives the same corpus. Tweet i has id
+ * i + 1. Authors are drawn from a Zipfian distribution over the authors'
+ * activity ranks, so a few authors write most tweets; mentions pick users by
+ * the same distribution, and hashtags by a Zipfian distribution of their
+ * own. Texts are words, mentions and hashtags separated by single spaces, at
+ * most maxLength <= 140 characters long. Timestamps have whole seconds, so
+ * tweets survive a round trip through the JSON written by writeJson.
+ *
+ * A CorpusGenerator is immutable and thread-safe; configure one with a
+ * Builder.
+ */
+public class CorpusGenerator {
+
+    /** Maximum length of a tweet's text. */
+    public static final int MAX_LENGTH = 140;
+
+    /** Maximum number of distinct authors, so usernames fit in 15 characters. */
+    public static final int MAX_AUTHORS = 100_000_000;
+
+    /**
+     * How tweet timestamps are spread over the generator's time window.
+     */
+    public enum TimeDistribution {
+        /** Evenly spaced in index order, so ids and timestamps increase together. */
+        SEQUENTIAL,
+        /** Independently uniform over the window. */
+        UNIFORM,
+        /** Uniform over the window's days, with a daily cycle peaking at 18:00 UTC. */
+        DIURNAL
+    }
+
+    private static final String[] WORDS = {
+        "the", "to", "a", "is", "in", "it", "of", "and", "for", "on", "this", "that", "you", "so", "my",
+        "at", "be", "with", "just", "not", "about", "me", "what", "all", "we", "new", "now", "today",
+        "love", "loving", "good", "great", "time", "talk", "minutes", "day", "people", "really", "RT",
+        "rivest", "Obama", "algorithms", "MIT", "6.005", "reasonable", "much?", "lol", "!", "caf\u00e9",
+        "tonight", "hype", "class", "code", "bug", "test", "ship", "coffee", "weekend", "news", "game"
+    };
+
+    private static final String[] SYLLABLES = {
+        "ka", "ro", "mi", "ta", "ne", "lo", "su", "vi", "da", "ben", "cy", "al", "ys", "sa", "bit",
+        "did", "dle", "ed", "er", "nie", "jo", "max", "pi", "zo", "ra", "ki", "tu", "mo", "li", "fa"
+    };
+
+    /* Zipf exponent of hashtag and word popularity. */
+    private static final double POPULARITY_EXPONENT = 1.0;
+
+    private final long seed;
+    private final long count;
+    private final int authors;
+    private final double mentionRate;
+    private final double hashtagRate;
+    private final int minLength;
+    private final int maxLength;
+    private final Instant start;
+    private final long seconds;
+    private final TimeDistribution timeDistribution;
+    private final ZipfSampler authorRanks;
+    private final ZipfSampler hashtagRanks;
+    private final ZipfSampler wordRanks;
+    /* Rep invariant:
+     *    count >= 0, 1 <= authors <= MAX_AUTHORS
+     *    mentionRate >= 0, hashtagRate >= 0
+     *    1 <= minLength <= maxLength <= MAX_LENGTH
+     *    seconds >= 1
+     * Abstraction function:
+     *    represents the corpus of count tweets where tweet i is tweet(i),
+     *    with timestamps in [start, start + seconds)
+     * Thread safety argument:
+     *    all fields are final and immutable; each tweet uses its own random
+     *    generator
+     */
+
+    private CorpusGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.count = builder.count;
+        this.authors = builder.authors;
+        this.mentionRate = builder.mentionRate;
+        this.hashtagRate = builder.hashtagRate;
+        this.minLength = builder.minLength;
+        this.maxLength = builder.maxLength;
+        this.start = builder.start;
+        this.seconds = builder.duration.getSeconds();
+        this.timeDistribution = builder.timeDistribution;
+        this.authorRanks = new ZipfSampler(builder.authors, builder.authorExponent);
+        this.hashtagRanks = new ZipfSampler(builder.hashtags, POPULARITY_EXPONENT);
+        this.wordRanks = new ZipfSampler(WORDS.length, POPULARITY_EXPONENT);
+    }
+
+    /**
+     * @return number of tweets in the corpus
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return number of distinct authors the tweets are drawn from
+     */
+    public int authors() {
+        return authors;
+    }
+
+    /**
+     * @param rank activity rank of an author, 0 <= rank < authors(); rank 0 is
+     *             the most active
+     * @return the author's username, at most 15 letters and digits in mixed
+     *         case; distinct ranks have case-insensitively distinct usernames
+     */
+    public String author(int rank) {
+        if (rank < 0 || rank >= authors) {
+            throw new IndexOutOfBoundsException("rank " + rank + ", authors " + authors);
+        }
+        return name(rank, 0x5DEECE66DL, true);
+    }
+
+    /**
+     * @param index index of a tweet, 0 <= index < count()
+     * @return tweet index of the corpus
+     */
+    public Tweet tweet(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index " + index + ", count " + count);
+        }
+        SplittableRandom random = new SplittableRandom(mix(seed + mix(index)));
+        String author = author(authorRanks.sample(random) - 1);
+        Instant timestamp = start.plusSeconds(secondOf(index, random));
+
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        List<String> tokens = new ArrayList<>();
+        int textLength = -1;
+        for (int i = events(random, mentionRate); i > 0; i--) {
+            textLength = insert(tokens, textLength, "@" + author(authorRanks.sample(random) - 1), length, random);
+        }
+        for (int i = events(random, hashtagRate); i > 0; i--) {
+            textLength = insert(tokens, textLength, "#" + hashtag(hashtagRanks.sample(random) - 1), length, random);
+        }
+        for (int misses = 0; misses < 3; ) {
+            int next = insert(tokens, textLength, WORDS[wordRanks.sample(random) - 1], length, random);
+            misses += next == textLength ? 1 : 0;
+            textLength = next;
+        }
+        if (tokens.isEmpty()) {
+            tokens.add("a");
+        }
+        return new Tweet(index + 1, author, String.join(" ", tokens), timestamp);
+    }
+
+    /**
+     * @return the tweets of the corpus in index order, generated lazily; the
+     *         stream may be made parallel
+     */
+    public Stream<Tweet> stream() {
+        return LongStream.range(0, count).mapToObj(this::tweet);
+    }
+
+    /**
+     * @return the tweets of the corpus in index order, all in memory
+     * @throws IllegalStateException if count() is too large for a list
+     */
+    public List<Tweet> generate() {
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("corpus of " + count + " tweets does not fit in a list");
+        }
+        List<Tweet> tweets = new ArrayList<>((int) count);
+        for (long i = 0; i < count; i++) {
+            tweets.add(tweet(i));
+        }
+        return tweets;
+    }
+
+    /**
+     * Write the corpus as a JSON array of tweet objects in the format read by
+     * TweetReader and served by Main.SAMPLE_SERVER, one tweet at a time.
+     * Non-ASCII characters are written as JSON unicode escapes, so the output
+     * is ASCII and TweetReader reads it correctly whatever the default
+     * charset.
+     *
+     * @param writer destination, not closed by this method
+     */
+    public void writeJson(Writer writer) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(CreatedAtParser.PATTERN, Locale.US);
+        JsonGenerator json = Json.createGenerator(new AsciiWriter(writer));
+        json.writeStartArray();
+        for (long i = 0; i < count; i++) {
+            Tweet tweet = tweet(i);
+            json.writeStartObject()
+                .write("id", tweet.getId())
+                .write("user.screen_name", tweet.getAuthor())
+                .write("text", tweet.getText())
+                .write("created_at", tweet.getTimestamp().atOffset(ZoneOffset.UTC).format(format))
+                .writeEnd();
+        }
+        json.writeEnd();
+        json.flush();
+    }
+
+    /**
+     * Write the corpus to a file as by writeJson(Writer), replacing the file
+     * if it exists.
+     *
+     * @param file file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+    }
+
+    /**
+     * Write a corpus with default settings to a file.
+     *
+     * @param args file name, number of tweets, and optional seed (default 0)
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("usage: CorpusGenerator FILE COUNT [SEED]");
+            System.exit(2);
+        }
+        long count = Long.parseLong(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        new Builder(seed).count(count).authors((int) Math.max(1, Math.min(count / 10, MAX_AUTHORS)))
+                .build().writeJson(Paths.get(args[0]));
+    }
+
+    /*
+     * Add token at a random position among tokens, whose text joined by
+     * spaces has textLength characters (-1 if there are none), unless that
+     * would make the text longer than length. @return the new textLength
+     */
+    private static int insert(List<String> tokens, int textLength, String token, int length, SplittableRandom random) {
+        int newLength = textLength + 1 + token.length();
+        if (newLength > length) {
+            return textLength;
+        }
+        tokens.add(random.nextInt(tokens.size() + 1), token);
+        return newLength;
+    }
+
+    /*
+     * @return a count with geometric distribution and the given mean
+     */
+    private static int events(SplittableRandom random, double mean) {
+        double p = mean / (1 + mean);
+        int events = 0;
+        while (random.nextDouble() < p) {
+            events++;
+        }
+        return events;
+    }
+
+    private long secondOf(long index, SplittableRandom random) {
+        switch (timeDistribution) {
+        case SEQUENTIAL:
+            return (long) (seconds * ((double) index / count));
+        case UNIFORM:
+            return random.nextLong(seconds);
+        case DIURNAL:
+            while (true) {
+                long second = random.nextLong(seconds);
+                double hour = ((start.getEpochSecond() + second) % 86400) / 3600.0;
+                if (random.nextDouble() * 2 < 1 + Math.cos(2 * Math.PI * (hour - 18) / 24)) {
+                    return second;
+                }
+            }
+        default:
+            throw new AssertionError(timeDistribution);
+        }
+    }
+
+    private String hashtag(int rank) {
+        return name(rank, 0x9E3779B97F4A7C15L, false);
+    }
+
+    /*
+     * Two pronounceable syllables chosen by salt and rank, followed by rank in
+     * decimal so distinct ranks give distinct names; at most 15 characters.
+     */
+    private String name(int rank, long salt, boolean mixedCase) {
+        long bits = mix(seed ^ salt ^ mix(rank));
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 2; i++) {
+            String syllable = SYLLABLES[(int) Long.remainderUnsigned(bits, SYLLABLES.length)];
+            bits = Long.divideUnsigned(bits, SYLLABLES.length);
+            boolean capital = mixedCase && (bits & 1) != 0;
+            bits >>>= 1;
+            name.append(capital ? Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1) : syllable);
+        }
+        return name.append(rank).toString();
+    }
+
+    /*
+     * Writer that replaces each non-ASCII char with a JSON unicode escape,
+     * which is correct because JSON allows non-ASCII chars only inside
+     * strings.
+     */
+    private static final class AsciiWriter extends FilterWriter {
+        AsciiWriter(Writer out) {
+            super(out);
+        }
+
+        @Override public void write(int c) throws IOException {
+            if (c < 0x80) {
+                out.write(c);
+            } else {
+                out.write(String.format("\\u%04x", c));
+            }
+        }
+
+        @Override public void write(char[] chars, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(chars[i]);
+            }
+        }
+
+        @Override public void write(String str, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(str.charAt(i));
+            }
+        }
+
+        @Override public void close() throws IOException {
+            // the caller's writer stays open
+            flush();
+        }
+    }
+
+    /*
+     * MurmurHash3 fmix64.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Settings for a CorpusGenerator. Every setting has a default except the
+     * seed.
+     */
+    public static class Builder {
+        private final long seed;
+        private long count = 1000;
+        private int authors = 1000;
+        private double authorExponent = 1.0;
+        private double mentionRate = 0.5;
+        private double hashtagRate = 0.2;
+        private int hashtags = 500;
+        private int minLength = 20;
+        private int maxLength = MAX_LENGTH;
+        private Instant start = Instant.parse("2016-02-17T00:00:00Z");
+        private Duration duration = Duration.ofDays(7);
+        private TimeDistribution timeDistribution = TimeDistribution.SEQUENTIAL;
+
+        /**
+         * @param seed seed from which the whole corpus is derived
+         */
+        public Builder(long seed) {
+            this.seed = seed;
+        }
+
+        /**
+         * @param count number of tweets, >= 0; default 1000
+         * @return this builder
+         */
+        public Builder count(long count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("count must be nonnegative");
+            }
+            this.count = count;
+            return this;
+        }
+
+        /**
+         * @param authors number of distinct authors, 1 <= authors <=
+         *                MAX_AUTHORS; default 1000
+         * @param exponent Zipf exponent of author activity, > 0: the author of
+         *                 rank r writes a share of tweets proportional to
+         *                 (r + 1)^-exponent; default 1
+         * @return this builder
+         */
+        public Builder authors(int authors, double exponent) {
+            if (authors < 1 || authors > MAX_AUTHORS || !(exponent > 0)) {
+                throw new IllegalArgumentException("need 1 <= authors <= " + MAX_AUTHORS + ", exponent > 0");
+            }
+            this.authors = authors;
+            this.authorExponent = exponent;
+            return this;
+        }
+
+        /**
+         * @param authors number of distinct authors, 1 <= authors <=
+         *                MAX_AUTHORS, with the current exponent
+         * @return this builder
+         */
+        public Builder authors(int authors) {
+            return authors(authors, authorExponent);
+        }
+
+        /**
+         * @param mentionRate mean number of mentions per tweet, >= 0; default 0.5
+         * @param hashtagRate mean number of hashtags per tweet, >= 0; default 0.2
+         * @param hashtags number of distinct hashtags, >= 1; default 500
+         * @return this builder
+         */
+        public Builder rates(double mentionRate, double hashtagRate, int hashtags) {
+            if (!(mentionRate >= 0) || !(hashtagRate >= 0) || hashtags < 1) {
+                throw new IllegalArgumentException("rates must be nonnegative, hashtags positive");
+            }
+            this.mentionRate = mentionRate;
+            this.hashtagRate = hashtagRate;
+            this.hashtags = hashtags;
+            return this;
+        }
+
+        /**
+         * @param minLength target minimum text length, >= 1; default 20
+         * @param maxLength maximum text length, minLength <= maxLength <=
+         *                  MAX_LENGTH; default MAX_LENGTH. Each tweet's target
+         *                  length is uniform in [minLength, maxLength], and
+         *                  its text is filled to within a word of it.
+         * @return this builder
+         */
+        public Builder length(int minLength, int maxLength) {
+            if (minLength < 1 || minLength > maxLength || maxLength > MAX_LENGTH) {
+                throw new IllegalArgumentException("need 1 <= minLength <= maxLength <= " + MAX_LENGTH);
+            }
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        /**
+         * @param start start of the time window; default 2016-02-17T00:00:00Z
+         * @param duration length of the time window, at least one second;
+         *                 default 7 days
+         * @param timeDistribution spread of the timestamps over the window;
+         *                         default SEQUENTIAL
+         * @return this builder
+         */
+        public Builder time(Instant start, Duration duration, TimeDistribution timeDistribution) {
+            if (duration.getSeconds() < 1) {
+                throw new IllegalArgumentException("duration must be at least one second");
+            }
+            this.start = start.minusNanos(start.getNano());
+            this.duration = duration;
+            this.timeDistribution = timeDistribution;
+            return this;
+        }
+
+        /**
+         * @return a generator with this builder's settings
+         */
+        public CorpusGenerator build() {
+            return new CorpusGenerator(this);
+        }
+    }
+
+    /*
+     * Samples 1..n with probability proportional to k^-exponent, in constant
+     * time and space, by rejection-inversion (Hormann and Derflinger, "Rejection-
+     * inversion to generate variates from monotone discrete distributions",
+     * 1996).
+     */
+    private static final class ZipfSampler {
+        private final int n;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        ZipfSampler(int n, double exponent) {
+            this.n = n;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > n) {
+                    k = n;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1 - exponent);
+            if (t < -1) {
+                t = -1;
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        /* log1p(x) / x, accurate near 0 */
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        /* expm1(x) / x, accurate near 0 */
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Parser for the created_at timestamps in Twitter JSON, which have the fixed
+ * layout "EEE MMM dd HH:mm:ss Z yyyy", e.g. "Wed Feb 17 10:00:00 +0000 2016".
+ *
+ * Well-formed input is decoded field by field straight into epoch seconds,
+ * without allocating. Anything the fast path does not recognize is handed to
+ * DateTimeFormatter, so results and errors are the same as parsing with
+ * ZonedDateTime.parse(text, DateTimeFormatter.ofPattern(PATTERN, Locale.US)).
+ */
+public class CreatedAtParser {
+
+    /** The layout of a created_at timestamp, as a DateTimeFormatter pattern. */
+    public static final String PATTERN = "EEE MMM dd HH:mm:ss Z yyyy";
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern(PATTERN, Locale.US);
+
+    private static final int LENGTH = 30;
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int DAYS_PER_400_YEARS = 146097;
+    private static final int DAYS_0000_TO_1970 = 719468;
+    /* ZoneOffset, and so the formatter, accepts offsets up to 18:00. */
+    private static final int MAX_OFFSET_MINUTES = 18 * 60;
+
+    private static final String[] DAYS_OF_WEEK = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    private CreatedAtParser() {
+        // static methods only
+    }
+
+    /**
+     * Parse a created_at timestamp.
+     *
+     * @param text timestamp in the layout PATTERN
+     * @return the instant the timestamp denotes
+     * @throws DateTimeParseException if text is not a valid timestamp
+     */
+    public static Instant parse(CharSequence text) {
+        return Instant.ofEpochSecond(parseEpochSecond(text));
+    }
+
+    /**
+     * Parse a created_at timestamp into seconds since the epoch.
+     *
+     * @param text timestamp in the layout PATTERN
+     * @return seconds from 1970-01-01T00:00:00Z to the instant the timestamp denotes
+     * @throws DateTimeParseException if text is not a valid timestamp
+     */
+    public static long parseEpochSecond(CharSequence text) {
+        long epochSecond = parseFixedLayout(text);
+        if (epochSecond != Long.MIN_VALUE) {
+            return epochSecond;
+        }
+        return ZonedDateTime.parse(text, FORMAT).toEpochSecond();
+    }
+
+    /*
+     * Decode text assuming the exact canonical layout
+     *   0123456789012345678901234567890
+     *   Wed Feb 17 10:00:00 +0000 2016
+     *
+     * @return epoch seconds, or Long.MIN_VALUE if text is not canonical or
+     *         not a valid date, in which case the formatter decides.
+     */
+    private static long parseFixedLayout(CharSequence text) {
+        if (text.length() != LENGTH
+                || text.charAt(3) != ' ' || text.charAt(7) != ' ' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':' || text.charAt(19) != ' '
+                || text.charAt(25) != ' ') {
+            return Long.MIN_VALUE;
+        }
+
+        int month = indexOf(MONTHS, text, 4) + 1;
+        int day = twoDigits(text, 8);
+        int hour = twoDigits(text, 11);
+        int minute = twoDigits(text, 14);
+        int second = twoDigits(text, 17);
+        int offsetHours = twoDigits(text, 21);
+        int offsetMinutes = twoDigits(text, 23);
+        int offset = offsetHours * 60 + offsetMinutes;
+        int year = fourDigits(text, 26);
+        char sign = text.charAt(20);
+        if (month == 0 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59 || offsetHours < 0 || offsetMinutes < 0
+                || offsetMinutes > 59 || offset > MAX_OFFSET_MINUTES || year < 1
+                || (sign != '+' && sign != '-') || day > lengthOfMonth(year, month)) {
+            return Long.MIN_VALUE;
+        }
+
+        long epochDay = epochDay(year, month, day);
+        if (indexOf(DAYS_OF_WEEK, text, 0) != Math.floorMod(epochDay + 3, 7)) {
+            return Long.MIN_VALUE;
+        }
+
+        int offsetSeconds = offset * 60;
+        if (sign == '-') {
+            offsetSeconds = -offsetSeconds;
+        }
+        return epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second - offsetSeconds;
+    }
+
+    /*
+     * @return index in names of the three-letter name at text[start..start+3),
+     *         or -1 if there is none.
+     */
+    private static int indexOf(String[] names, CharSequence text, int start) {
+        char c0 = text.charAt(start);
+        char c1 = text.charAt(start + 1);
+        char c2 = text.charAt(start + 2);
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.charAt(0) == c0 && name.charAt(1) == c1 && name.charAt(2) == c2) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * @return value of the two ASCII digits at text[start..start+2), or -1 if
+     *         they are not both digits.
+     */
+    private static int twoDigits(CharSequence text, int start) {
+        int d1 = text.charAt(start) - '0';
+        int d2 = text.charAt(start + 1) - '0';
+        if (d1 < 0 || d1 > 9 || d2 < 0 || d2 > 9) {
+            return -1;
+        }
+        return d1 * 10 + d2;
+    }
+
+    private static int fourDigits(CharSequence text, int start) {
+        int high = twoDigits(text, start);
+        int low = twoDigits(text, start + 2);
+        if (high < 0 || low < 0) {
+            return -1;
+        }
+        return high * 100 + low;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /*
+     * Days from 1970-01-01 to the given proleptic Gregorian date, counting
+     * from a year starting in March so the leap day falls at the end.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = (month <= 2) ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+}
@@ -3,13 +3,14 @@
  */
 package twitter;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.time.Instant;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -33,10 +34,10 @@ public class Extract {
 
 		public static Timespan getTimespan(List<Tweet> tweets) {
 			
-			// Added Bug : incorrect handling of empty list, returns wring timestamp
 		    if (tweets.isEmpty()) {
-		    	return new Timespan(Instant.now().minusSeconds(3600), Instant.now());
-//		        return new Timespan(Instant.now(), Instant.now());
+		        // the minimum-length interval is a single instant
+		        Instant now = Instant.now();
+		        return new Timespan(now, now);
 		    }
 		    
 		    Instant start = tweets.get(0).getTimestamp();
@@ -125,12 +126,145 @@ public class Extract {
 	 */
 	public static Set<String> getMentionedUsers(List<Tweet> tweets) {
 		Set<String> mentionedUsers = new HashSet<>();
-		Pattern pattern = Pattern.compile("(?<!\\w)@([a-zA-Z0-9_]+)(?!\\w)");
 
 		for (Tweet tweet : tweets) {
-			Matcher matcher = pattern.matcher(tweet.getText());
-			while (matcher.find()) {
-				mentionedUsers.add(matcher.group(1).toLowerCase());
+			for (String username : MentionScanner.scan(tweet.getText())) {
+				mentionedUsers.add(username);
+			}
+		}
+
+		return mentionedUsers;
+	}
+
+	/**
+	 * Get usernames mentioned in a corpus, reusing the mentions already found
+	 * by other passes over the same cache.
+	 * 
+	 * @param mentions mention cache of a list of tweets with distinct ids.
+	 * @return getMentionedUsers(mentions.tweets())
+	 */
+	public static Set<String> getMentionedUsers(MentionCache mentions) {
+		Set<String> mentionedUsers = new HashSet<>();
+
+		for (int i = 0; i < mentions.size(); i++) {
+			for (String username : mentions.mentionsOf(i)) {
+				mentionedUsers.add(username);
+			}
+		}
+
+		return mentionedUsers;
+	}
+
+	/**
+	 * Estimate the number of distinct usernames mentioned in a list of tweets,
+	 * without building the set of them.
+	 * 
+	 * @param tweets list of tweets with distinct ids, not modified by this method.
+	 * @param precision HyperLogLog precision, between HyperLogLog.MIN_PRECISION
+	 *         and HyperLogLog.MAX_PRECISION; the sketch uses 2^precision bytes.
+	 * @return a sketch of the usernames mentioned in the tweets, as defined by
+	 *         getMentionedUsers, whose estimate() approximates
+	 *         getMentionedUsers(tweets).size(). Sketches of disjoint shards of
+	 *         a corpus may be merged.
+	 */
+	public static HyperLogLog sketchMentionedUsers(List<Tweet> tweets, int precision) {
+		HyperLogLog sketch = new HyperLogLog(precision);
+
+		for (Tweet tweet : tweets) {
+			for (String username : MentionScanner.scan(tweet.getText())) {
+				sketch.add(username);
+			}
+		}
+
+		return sketch;
+	}
+
+	/**
+	 * Estimate the number of distinct authors of a list of tweets.
+	 * 
+	 * @param tweets list of tweets with distinct ids, not modified by this method.
+	 * @param precision HyperLogLog precision, between HyperLogLog.MIN_PRECISION
+	 *         and HyperLogLog.MAX_PRECISION; the sketch uses 2^precision bytes.
+	 * @return a sketch of the authors of the tweets, compared case-insensitively,
+	 *         whose estimate() approximates the number of distinct authors.
+	 *         Sketches of disjoint shards of a corpus may be merged.
+	 */
+	public static HyperLogLog sketchAuthors(List<Tweet> tweets, int precision) {
+		HyperLogLog sketch = new HyperLogLog(precision);
+
+		for (Tweet tweet : tweets) {
+			sketch.add(tweet.getAuthor().toLowerCase(Locale.ROOT));
+		}
+
+		return sketch;
+	}
+
+	/**
+	 * Get the time period spanned by the tweets in a store, from its primitive
+	 * timestamp columns.
+	 * 
+	 * @param store store of tweets with distinct ids, not modified by this method.
+	 * @return a minimum-length time interval that contains the timestamp of every
+	 *         tweet in the store; for an empty store, the same as getTimespan
+	 *         of an empty list.
+	 */
+	public static Timespan getTimespan(TweetStore store) {
+		if (store.size() == 0) {
+			return getTimespan(Collections.<Tweet>emptyList());
+		}
+
+		long[] epochSeconds = store.epochSecondsColumn();
+		int[] nanos = store.nanosColumn();
+		int first = 0;
+		int last = 0;
+		for (int i = 1; i < store.size(); i++) {
+			long second = epochSeconds[i];
+			if (second < epochSeconds[first] || (second == epochSeconds[first] && nanos[i] < nanos[first])) {
+				first = i;
+			}
+			if (second > epochSeconds[last] || (second == epochSeconds[last] && nanos[i] > nanos[last])) {
+				last = i;
+			}
+		}
+
+		return new Timespan(store.getTimestamp(first), store.getTimestamp(last));
+	}
+
+	/**
+	 * Get usernames mentioned in the tweets of a store, scanning the packed
+	 * UTF-8 texts without decoding them.
+	 * 
+	 * @param store store of tweets with distinct ids, not modified by this method.
+	 * @return the set of usernames mentioned in the text of the tweets, as
+	 *         defined by getMentionedUsers(List).
+	 */
+	public static Set<String> getMentionedUsers(TweetStore store) {
+		Set<String> mentionedUsers = new HashSet<>();
+
+		for (int i = 0; i < store.size(); i++) {
+			for (String username : MentionScanner.scan(store.textPage(i), store.textOffset(i), store.textLength(i))) {
+				mentionedUsers.add(username);
+			}
+		}
+
+		return mentionedUsers;
+	}
+
+	/**
+	 * Get the ids of the usernames mentioned in a list of tweets, interning
+	 * them in a dictionary, without creating a string per mention.
+	 * 
+	 * @param tweets list of tweets with distinct ids, not modified by this method.
+	 * @param dictionary dictionary in which to intern the mentioned usernames.
+	 * @return the set of dictionary ids of the usernames in
+	 *         getMentionedUsers(tweets).
+	 */
+	public static BitSet getMentionedUserIds(List<Tweet> tweets, UserDictionary dictionary) {
+		BitSet mentionedUsers = new BitSet();
+
+		for (Tweet tweet : tweets) {
+			for (int id : MentionScanner.scanIds(tweet.getText(), dictionary)) {
+				mentionedUsers.set(id);
 			}
 		}
 
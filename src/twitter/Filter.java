@@ -34,9 +34,7 @@ public class Filter {
 	public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
 	    List<Tweet> result = new ArrayList<>();
 	    for (Tweet tweet : tweets) {
-//	        if (tweet.getAuthor().equalsIgnoreCase(username)) {
-	    	// Added Bug : no longer case insensitive
-        	if (tweet.getAuthor().equals(username)) {
+	        if (tweet.getAuthor().equalsIgnoreCase(username)) {
 	            result.add(tweet);
 	        }
 	    }
@@ -83,21 +81,16 @@ public class Filter {
      *         same order as in the input list.
      */
 	
-	// This is original implementation
 	public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
-	    Set<String> wordSet = new HashSet<>();
-	    for (String word : words) {
-	        wordSet.add(word.toLowerCase());
-	    }
+	    // scans each text in place instead of lowercasing and splitting it;
+	    // same result as the split-based variants 1 and 3 below; variant 2
+	    // matches regex word boundaries, which differ from whitespace splitting
+	    WordMatcher matcher = new WordMatcher(words);
 
 	    List<Tweet> result = new ArrayList<>();
 	    for (Tweet tweet : tweets) {
-	        String[] tweetWords = tweet.getText().toLowerCase().split("\\s+");
-	        for (String tweetWord : tweetWords) {
-	            if (wordSet.contains(tweetWord)) {
-	                result.add(tweet);
-	                break; // Stop searching once we find a match
-	            }
+	        if (matcher.matchesAny(tweet.getText())) {
+	            result.add(tweet);
 	        }
 	    }
 	    return result;
@@ -158,5 +151,124 @@ public class Filter {
 //        }
 //        return result;
 //    }
+
+    /**
+     * Find tweets written by a particular user, given as a dictionary id.
+     * Compares the tweets' author ids, resolved once per corpus, instead of
+     * author strings.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param authorIds
+     *            dictionary ids of the tweets' authors, as returned by
+     *            UserDictionary.internAuthors(tweets); not modified by this
+     *            method.
+     * @param author
+     *            id of a Twitter username in the same dictionary.
+     * @return all and only the tweets in the list whose author has id author
+     *         (so compared case-insensitively), in the same order as in the
+     *         input list.
+     */
+	public static List<Tweet> writtenBy(List<Tweet> tweets, int[] authorIds, int author) {
+	    if (authorIds.length != tweets.size()) {
+	        throw new IllegalArgumentException("requires one author id per tweet");
+	    }
+	    List<Tweet> result = new ArrayList<>();
+	    for (int i = 0; i < authorIds.length; i++) {
+	        if (authorIds[i] == author) {
+	            result.add(tweets.get(i));
+	        }
+	    }
+	    return result;
+	}
+
+    /**
+     * Find tweets in a store written by a particular user. Scans the store's
+     * author codes rather than comparing author strings tweet by tweet.
+     * 
+     * @param store
+     *            a store of tweets with distinct ids, not modified by this method.
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the tweets in the store whose author is username
+     *         (compared case-insensitively), in the same order as in the store.
+     */
+	public static List<Tweet> writtenBy(TweetStore store, String username) {
+	    boolean[] matchingAuthors = new boolean[store.getAuthorCount()];
+	    boolean anyMatch = false;
+	    for (int code = 0; code < matchingAuthors.length; code++) {
+	        matchingAuthors[code] = store.getAuthorName(code).equalsIgnoreCase(username);
+	        anyMatch |= matchingAuthors[code];
+	    }
+
+	    List<Tweet> result = new ArrayList<>();
+	    if (!anyMatch) {
+	        return result;
+	    }
+	    int[] authorCodes = store.authorCodesColumn();
+	    for (int i = 0; i < store.size(); i++) {
+	        if (matchingAuthors[authorCodes[i]]) {
+	            result.add(store.getTweet(i));
+	        }
+	    }
+	    return result;
+	}
+
+    /**
+     * Find tweets in a store that were sent during a particular timespan.
+     * Compares the store's primitive timestamp columns.
+     * 
+     * @param store
+     *            a store of tweets with distinct ids, not modified by this method.
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets in the store that were sent during the
+     *         timespan, in the same order as in the store.
+     */
+	public static List<Tweet> inTimespan(TweetStore store, Timespan timespan) {
+	    long startSecond = timespan.getStart().getEpochSecond();
+	    int startNano = timespan.getStart().getNano();
+	    long endSecond = timespan.getEnd().getEpochSecond();
+	    int endNano = timespan.getEnd().getNano();
+	    long[] epochSeconds = store.epochSecondsColumn();
+	    int[] nanos = store.nanosColumn();
+
+	    List<Tweet> result = new ArrayList<>();
+	    for (int i = 0; i < store.size(); i++) {
+	        long second = epochSeconds[i];
+	        boolean afterStart = second > startSecond || (second == startSecond && nanos[i] >= startNano);
+	        boolean beforeEnd = second < endSecond || (second == endSecond && nanos[i] <= endNano);
+	        if (afterStart && beforeEnd) {
+	            result.add(store.getTweet(i));
+	        }
+	    }
+	    return result;
+	}
+
+    /**
+     * Find tweets in a store that contain certain words. Matches the packed
+     * UTF-8 texts, decoding only words that are not ASCII.
+     * 
+     * @param store
+     *            a store of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return all and only the tweets in the store that include at least one
+     *         of the words, as defined by containing(List, List), in the same
+     *         order as in the store.
+     */
+	public static List<Tweet> containing(TweetStore store, List<String> words) {
+	    WordMatcher matcher = new WordMatcher(words);
+
+	    List<Tweet> result = new ArrayList<>();
+	    for (int i = 0; i < store.size(); i++) {
+	        if (matcher.matchesAny(store.textPage(i), store.textOffset(i), store.textLength(i))) {
+	            result.add(store.getTweet(i));
+	        }
+	    }
+	    return result;
+	}
  
 } 
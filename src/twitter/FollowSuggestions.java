@@ -0,0 +1,218 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * "People you might want to follow" suggestions by triadic closure: the users
+ * followed by the users somebody follows, ranked by how many of somebody's
+ * followees follow them.
+ *
+ * Queries run on user ids. A query borrows a scratch counter array and a
+ * bitset of the querying user's followees, sized to the graph and reset only
+ * where a query touched them, so a query costs time proportional to the
+ * two-hop neighbourhood it visits rather than to the graph. Scratch is kept
+ * in a pool owned by this object, one per concurrent query, and suggestAll
+ * uses a pool of its own that it drops when it returns. A degree cap
+ * skips expanding followees who follow more users than the cap, so a query
+ * through a celebrity account does bounded work.
+ *
+ * A FollowSuggestions is thread-safe.
+ */
+public class FollowSuggestions {
+
+    /** Default maximum out-degree of a followee whose followees are counted. */
+    public static final int DEFAULT_DEGREE_CAP = 10_000;
+
+    private final UserGraph graph;
+    private final int degreeCap;
+    private final Queue<Scratch> idle = new ConcurrentLinkedQueue<>();
+    /* Rep invariant:
+     *    degreeCap >= 0
+     *    every Scratch in a pool, such as idle, is sized to graph, and has
+     *      counts all 0 and its followees bitset all clear
+     * Abstraction function:
+     *    represents the suggestion engine over graph that expands only
+     *    followees with out-degree <= degreeCap
+     * Thread safety argument:
+     *    graph is immutable; a query takes a Scratch out of a thread-safe pool,
+     *    so no other query uses it, and returns it only once it is reset
+     */
+
+    /**
+     * Make a suggestion engine with the default degree cap.
+     *
+     * @param graph follows graph
+     */
+    public FollowSuggestions(UserGraph graph) {
+        this(graph, DEFAULT_DEGREE_CAP);
+    }
+
+    /**
+     * Make a suggestion engine.
+     *
+     * @param graph follows graph
+     * @param degreeCap followees who follow more than degreeCap users are not
+     *                  expanded, >= 0
+     */
+    public FollowSuggestions(UserGraph graph, int degreeCap) {
+        if (degreeCap < 0) {
+            throw new IllegalArgumentException("degreeCap must be nonnegative");
+        }
+        this.graph = graph;
+        this.degreeCap = degreeCap;
+    }
+
+    /**
+     * Suggest users for one user to follow.
+     *
+     * @param user user id in the graph
+     * @param k number of suggestions wanted, >= 0
+     * @return up to k ids of users, other than user and the users user
+     *         already follows, who are followed by at least one of user's
+     *         followees within the degree cap, in descending order of the
+     *         number of such followees, ties broken by username
+     */
+    public int[] suggest(int user, int k) {
+        return suggest(user, k, idle);
+    }
+
+    /*
+     * suggest(user, k) with scratch borrowed from pool. A query that throws
+     * does not return its scratch, which may not be reset.
+     */
+    private int[] suggest(int user, int k, Queue<Scratch> pool) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative");
+        }
+        Scratch s = pool.poll();
+        if (s == null) {
+            s = new Scratch(graph.userCount());
+        }
+        int[] top = suggest(user, k, s);
+        pool.offer(s);
+        return top;
+    }
+
+    /*
+     * suggest(user, k) using s, which is reset again on return.
+     */
+    private int[] suggest(int user, int k, Scratch s) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+            s.set(targets[e]);
+        }
+
+        int touchedCount = 0;
+        for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+            int friend = targets[e];
+            if (offsets[friend + 1] - offsets[friend] > degreeCap) {
+                continue;
+            }
+            for (int f = offsets[friend]; f < offsets[friend + 1]; f++) {
+                int candidate = targets[f];
+                if (candidate == user || s.isSet(candidate)) {
+                    continue;
+                }
+                if (s.counts[candidate]++ == 0) {
+                    if (touchedCount == s.touched.length) {
+                        s.touched = Arrays.copyOf(s.touched, touchedCount * 2);
+                    }
+                    s.touched[touchedCount++] = candidate;
+                }
+            }
+        }
+
+        int[] counts = s.counts;
+        int[] top = TopK.select(s.touched, touchedCount, k, (u, v) -> counts[u] != counts[v]
+                ? counts[u] > counts[v] : graph.name(u).compareTo(graph.name(v)) < 0);
+
+        for (int i = 0; i < touchedCount; i++) {
+            s.counts[s.touched[i]] = 0;
+        }
+        for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+            s.clear(targets[e]);
+        }
+        return top;
+    }
+
+    /**
+     * Suggest users for one user to follow.
+     *
+     * @param username Twitter username, in any case
+     * @param k number of suggestions wanted, >= 0
+     * @return lowercase usernames of suggest(id of username, k); empty if
+     *         username is not in the graph
+     */
+    public List<String> suggest(String username, int k) {
+        return suggest(username, k, idle);
+    }
+
+    private List<String> suggest(String username, int k, Queue<Scratch> pool) {
+        int user = graph.id(username);
+        if (user < 0) {
+            return Collections.emptyList();
+        }
+        return names(suggest(user, k, pool));
+    }
+
+    /**
+     * Suggest users for many users to follow, spreading the queries over the
+     * common fork-join pool. The queries share scratch allocated for this
+     * call, at most one per thread running them, which is dropped on return.
+     *
+     * @param usernames Twitter usernames, in any case
+     * @param k number of suggestions wanted per user, >= 0
+     * @return suggest(username, k) for each username, in the same order
+     */
+    public List<List<String>> suggestAll(List<String> usernames, int k) {
+        Queue<Scratch> pool = new ConcurrentLinkedQueue<>();
+        return IntStream.range(0, usernames.size()).parallel()
+                .mapToObj(i -> suggest(usernames.get(i), k, pool))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> names(int[] users) {
+        List<String> names = new ArrayList<>(users.length);
+        for (int user : users) {
+            names.add(graph.name(user));
+        }
+        return names;
+    }
+
+    /*
+     * Query state, sized to the graph.
+     */
+    private static final class Scratch {
+        private final int[] counts;
+        private final long[] followees;
+        private int[] touched = new int[16];
+
+        Scratch(int userCount) {
+            this.counts = new int[userCount];
+            this.followees = new long[(userCount + 63) >>> 6];
+        }
+
+        void set(int user) {
+            followees[user >>> 6] |= 1L << user;
+        }
+
+        void clear(int user) {
+            followees[user >>> 6] &= ~(1L << user);
+        }
+
+        boolean isSet(int user) {
+            return (followees[user >>> 6] & (1L << user)) != 0;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mutable follows graph for a continuous stream of tweets. It holds the
+ * graph SocialNetwork.guessFollowsGraph would build from every tweet added
+ * so far, and ranks users by follower count as SocialNetwork.influencers
+ * does, but each added tweet updates the graph and ranking in place instead
+ * of rebuilding them.
+ *
+ * Users are kept in an array ordered by descending follower count. A new
+ * follow edge raises one user's count by one, which moves that user from the
+ * front of its count's block to the back of the next block up: one swap, in
+ * constant time.
+ *
+ * A FollowsGraph is thread-safe. Each add or addAll happens atomically, so
+ * readers always see the graph between whole calls, never in the middle of
+ * one.
+ */
+public class FollowsGraph {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int[][] followees = new int[16][];
+    private int[] outDegrees = new int[16];
+    private final EdgeSet edges = new EdgeSet();
+    private int edgeCount;
+
+    private int[] followerCounts = new int[16];
+    private int[] ranked = new int[16];
+    private int[] rankOf = new int[16];
+    private int[] above = new int[1];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /* Rep invariant:
+     *    names are distinct and lowercase, ids maps names[u] to u; let n = names.size()
+     *    followees[u][0..outDegrees[u]) are the distinct ids u follows, none equal to u
+     *    edges contains exactly the pairs (u, v) with v in followees[u], and
+     *      edgeCount == edges.size()
+     *    followerCounts[v] == number of u with v in followees[u]
+     *    ranked[0..n) is a permutation of 0..n-1 in nonincreasing order of
+     *      followerCounts, and rankOf[ranked[p]] == p
+     *    above.length > max followerCounts, and above[c] == number of users
+     *      with followerCounts > c
+     * Abstraction function:
+     *    represents the social network in which names[u] follows names[v] iff
+     *    v is in followees[u], with every added author and mentioned user as
+     *    a node
+     * Thread safety argument:
+     *    all fields are accessed only while holding lock: the write lock in
+     *    methods that mutate, the read lock in methods that observe
+     */
+
+    /**
+     * Make an empty graph.
+     */
+    public FollowsGraph() {
+    }
+
+    /**
+     * Add a tweet's evidence: its author follows every user it @-mentions.
+     *
+     * @param tweet tweet to add
+     */
+    public void add(Tweet tweet) {
+        addAll(Collections.singletonList(tweet));
+    }
+
+    /**
+     * Add the evidence of a list of tweets, as one atomic update.
+     *
+     * @param tweets tweets to add, not modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        // appended tweets are seen once, so scan them directly, and outside
+        // the lock so readers only wait for the graph update
+        String[] authors = new String[tweets.size()];
+        String[][] mentions = new String[tweets.size()][];
+        for (int i = 0; i < authors.length; i++) {
+            Tweet tweet = tweets.get(i);
+            authors[i] = tweet.getAuthor().toLowerCase(Locale.ROOT);
+            mentions[i] = MentionScanner.scan(tweet.getText());
+        }
+
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (int i = 0; i < authors.length; i++) {
+                int author = intern(authors[i]);
+                for (String mention : mentions[i]) {
+                    addEdge(author, intern(mention));
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of users in the graph
+     */
+    public int userCount() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return names.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of follows edges in the graph
+     */
+    public int edgeCount() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return edgeCount;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return number of users following username; 0 if it is not in the graph
+     */
+    public int followerCount(String username) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            Integer user = ids.get(username.toLowerCase(Locale.ROOT));
+            return user == null ? 0 : followerCounts[user];
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param follower Twitter username, in any case
+     * @param followee Twitter username, in any case
+     * @return true iff there is evidence that follower follows followee
+     */
+    public boolean follows(String follower, String followee) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            Integer u = ids.get(follower.toLowerCase(Locale.ROOT));
+            Integer v = ids.get(followee.toLowerCase(Locale.ROOT));
+            return u != null && v != null && edges.contains(u, v);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Find the current top influencers, without re-ranking anybody.
+     *
+     * @param k number of usernames wanted, >= 0
+     * @return the first min(k, userCount()) usernames in descending order of
+     *         follower count, ties broken alphabetically; the same as
+     *         SocialNetwork.influencers(snapshot().asMap(), k)
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative");
+        }
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<String> top = new ArrayList<>(Math.min(k, names.size()));
+            int position = 0;
+            while (top.size() < k && position < names.size()) {
+                // the block of users sharing the next follower count
+                int count = followerCounts[ranked[position]];
+                int blockEnd = count == 0 ? names.size() : above[count - 1];
+                String[] block = new String[blockEnd - position];
+                for (int p = position; p < blockEnd; p++) {
+                    block[p - position] = names.get(ranked[p]);
+                }
+                Arrays.sort(block);
+                top.addAll(Arrays.asList(block).subList(0, Math.min(block.length, k - top.size())));
+                position = blockEnd;
+            }
+            return top;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return an immutable copy of the graph as it is now
+     */
+    public UserGraph snapshot() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int userCount = names.size();
+            int[] offsets = new int[userCount + 1];
+            for (int u = 0; u < userCount; u++) {
+                offsets[u + 1] = offsets[u] + outDegrees[u];
+            }
+            int[] targets = new int[edgeCount];
+            for (int u = 0; u < userCount; u++) {
+                if (outDegrees[u] > 0) {
+                    System.arraycopy(followees[u], 0, targets, offsets[u], outDegrees[u]);
+                    Arrays.sort(targets, offsets[u], offsets[u + 1]);
+                }
+            }
+            String[] userNames = names.toArray(new String[userCount]);
+            return new UserGraph(userNames, UserDictionary.of(userNames), offsets, targets);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /*
+     * Requires write lock. @return id of case-folded username name, adding
+     * it with no followers, at the end of the ranking, if it is new.
+     */
+    private int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int user = names.size();
+        if (user == ranked.length) {
+            int capacity = user * 2;
+            followees = Arrays.copyOf(followees, capacity);
+            outDegrees = Arrays.copyOf(outDegrees, capacity);
+            followerCounts = Arrays.copyOf(followerCounts, capacity);
+            ranked = Arrays.copyOf(ranked, capacity);
+            rankOf = Arrays.copyOf(rankOf, capacity);
+        }
+        ids.put(name, user);
+        names.add(name);
+        ranked[user] = user;
+        rankOf[user] = user;
+        return user;
+    }
+
+    /*
+     * Requires write lock. Record that follower follows followee, unless it
+     * is a self-follow or already known.
+     */
+    private void addEdge(int follower, int followee) {
+        if (follower == followee || !edges.add(follower, followee)) {
+            return;
+        }
+        edgeCount++;
+
+        int degree = outDegrees[follower];
+        if (followees[follower] == null) {
+            followees[follower] = new int[4];
+        } else if (degree == followees[follower].length) {
+            followees[follower] = Arrays.copyOf(followees[follower], degree * 2);
+        }
+        followees[follower][degree] = followee;
+        outDegrees[follower] = degree + 1;
+
+        // swap followee to the front of its block, then move the block boundary past it
+        int count = followerCounts[followee];
+        if (count + 1 == above.length) {
+            above = Arrays.copyOf(above, above.length * 2);
+        }
+        int front = above[count];
+        int displaced = ranked[front];
+        int position = rankOf[followee];
+        ranked[position] = displaced;
+        rankOf[displaced] = position;
+        ranked[front] = followee;
+        rankOf[followee] = front;
+        above[count]++;
+        followerCounts[followee] = count + 1;
+    }
+
+    /*
+     * Open-addressing set of (follower, followee) id pairs packed into longs.
+     */
+    private static final class EdgeSet {
+        private static final long EMPTY = -1L;
+
+        private long[] slots = newSlots(64);
+        private int size;
+
+        boolean contains(int follower, int followee) {
+            long key = key(follower, followee);
+            int mask = slots.length - 1;
+            for (int slot = slot(key, mask); slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (slots[slot] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * @return true iff the pair was not already present
+         */
+        boolean add(int follower, int followee) {
+            if (2 * (size + 1) > slots.length) {
+                long[] old = slots;
+                slots = newSlots(old.length * 2);
+                for (long key : old) {
+                    if (key != EMPTY) {
+                        insert(key);
+                    }
+                }
+            }
+            if (!insert(key(follower, followee))) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        private boolean insert(long key) {
+            int mask = slots.length - 1;
+            int slot = slot(key, mask);
+            while (slots[slot] != EMPTY) {
+                if (slots[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = key;
+            return true;
+        }
+
+        private static long key(int follower, int followee) {
+            return ((long) follower << 32) | (followee & 0xFFFFFFFFL);
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+
+        private static long[] newSlots(int capacity) {
+            long[] slots = new long[capacity];
+            Arrays.fill(slots, EMPTY);
+            return slots;
+        }
+    }
+}
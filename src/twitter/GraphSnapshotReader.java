@@ -0,0 +1,289 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view of a follows graph snapshot written by GraphSnapshotWriter.
+ * The file is memory-mapped when opened, and nothing else is read up front:
+ * username lookups binary-search the mapped name order, and follower and
+ * followee queries read their rows straight from the mapped CSR sections.
+ *
+ * A GraphSnapshotReader is safe to share between threads. The file is closed
+ * as soon as it is mapped; the mappings last as long as the reader.
+ */
+public class GraphSnapshotReader {
+
+    private final int userCount;
+    private final int edgeCount;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer nameBytes;
+    private final IntBuffer nameOrder;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inSources;
+    /* Rep invariant:
+     *    nameOffsets, outOffsets, inOffsets have userCount+1 elements;
+     *      nameOrder has userCount; outTargets, inSources have edgeCount
+     * Abstraction function:
+     *    represents the UserGraph whose user u is named by the UTF-8 bytes
+     *    nameOffsets[u]..nameOffsets[u+1] of nameBytes and follows the users
+     *    outTargets[outOffsets[u]..outOffsets[u+1])
+     * Thread safety argument:
+     *    the buffers are never modified and only read with absolute gets,
+     *    or through duplicates confined to one call
+     */
+
+    private GraphSnapshotReader(FileChannel channel) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(channel.size(), GraphSnapshotWriter.HEADER_SIZE));
+        if (header.limit() < GraphSnapshotWriter.HEADER_SIZE || header.getInt() != GraphSnapshotWriter.MAGIC) {
+            throw new IOException("not a graph snapshot");
+        }
+        int version = header.getInt();
+        if (version != GraphSnapshotWriter.VERSION) {
+            throw new IOException("unsupported graph snapshot version " + version);
+        }
+        this.userCount = header.getInt();
+        this.edgeCount = header.getInt();
+        long[] offsets = new long[GraphSnapshotWriter.SECTION_COUNT];
+        long[] lengths = new long[GraphSnapshotWriter.SECTION_COUNT];
+        for (int section = 0; section < GraphSnapshotWriter.SECTION_COUNT; section++) {
+            offsets[section] = header.getLong();
+            lengths[section] = header.getLong();
+            if (offsets[section] < 0 || lengths[section] < 0 || offsets[section] + lengths[section] > channel.size()) {
+                throw new IOException("graph snapshot is truncated");
+            }
+        }
+
+        this.nameOffsets = map(channel, offsets, lengths, GraphSnapshotWriter.NAME_OFFSETS).asIntBuffer();
+        this.nameBytes = map(channel, offsets, lengths, GraphSnapshotWriter.NAME_BYTES);
+        this.nameOrder = map(channel, offsets, lengths, GraphSnapshotWriter.NAME_ORDER).asIntBuffer();
+        this.outOffsets = map(channel, offsets, lengths, GraphSnapshotWriter.OUT_OFFSETS).asIntBuffer();
+        this.outTargets = map(channel, offsets, lengths, GraphSnapshotWriter.OUT_TARGETS).asIntBuffer();
+        this.inOffsets = map(channel, offsets, lengths, GraphSnapshotWriter.IN_OFFSETS).asIntBuffer();
+        this.inSources = map(channel, offsets, lengths, GraphSnapshotWriter.IN_SOURCES).asIntBuffer();
+        if (userCount < 0 || nameOffsets.limit() != userCount + 1 || nameOrder.limit() != userCount
+                || outOffsets.limit() != userCount + 1 || inOffsets.limit() != userCount + 1
+                || outTargets.limit() != edgeCount || inSources.limit() != edgeCount) {
+            throw new IOException("graph snapshot sections do not match user count " + userCount
+                    + " and edge count " + edgeCount);
+        }
+    }
+
+    /**
+     * Open a graph snapshot file.
+     *
+     * @param file snapshot written by GraphSnapshotWriter
+     * @return a reader over the graph in the file
+     * @throws IOException if the file cannot be read or is not a graph
+     *                     snapshot of a supported version
+     */
+    public static GraphSnapshotReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new GraphSnapshotReader(channel);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long[] offsets, long[] lengths, int section)
+            throws IOException {
+        if (lengths[section] > Integer.MAX_VALUE) {
+            throw new IOException("graph snapshot section " + section + " is too large to map");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offsets[section], lengths[section]);
+    }
+
+    /**
+     * @return number of users in the graph; user ids are 0..userCount()-1
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * @return number of follows edges in the graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @param user user id
+     * @return the user's lowercase username, decoded on each call
+     */
+    public String name(int user) {
+        ByteBuffer name = nameBytes.duplicate();
+        name.limit(nameOffsets.get(user + 1)).position(nameOffsets.get(user));
+        return StandardCharsets.UTF_8.decode(name).toString();
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return the user's id, or -1 if the user is not in the graph
+     */
+    public int id(String username) {
+        byte[] key = username.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int user = nameOrder.get(middle);
+            int comparison = compareName(user, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return user;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Compare user's name bytes with key, as GraphSnapshotWriter.compareUnsigned.
+     */
+    private int compareName(int user, byte[] key) {
+        int start = nameOffsets.get(user);
+        int length = nameOffsets.get(user + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = (nameBytes.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * @param user user id
+     * @return number of users that user follows
+     */
+    public int outDegree(int user) {
+        return outOffsets.get(user + 1) - outOffsets.get(user);
+    }
+
+    /**
+     * @param user user id
+     * @return number of users following user
+     */
+    public int inDegree(int user) {
+        return inOffsets.get(user + 1) - inOffsets.get(user);
+    }
+
+    /**
+     * @param user user id
+     * @return ids of the users that user follows, in increasing order
+     */
+    public int[] followees(int user) {
+        return row(outOffsets, outTargets, user);
+    }
+
+    /**
+     * @param user user id
+     * @return ids of the users following user, in increasing order
+     */
+    public int[] followers(int user) {
+        return row(inOffsets, inSources, user);
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return lowercase usernames of the users that username follows, in
+     *         increasing order of id; empty if username is not in the graph
+     */
+    public List<String> followees(String username) {
+        int user = id(username);
+        return new NameList(user < 0 ? new int[0] : followees(user));
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return lowercase usernames of the users following username, in
+     *         increasing order of id; empty if username is not in the graph
+     */
+    public List<String> followers(String username) {
+        int user = id(username);
+        return new NameList(user < 0 ? new int[0] : followers(user));
+    }
+
+    /**
+     * @param follower user id
+     * @param followee user id
+     * @return true iff follower follows followee
+     */
+    public boolean follows(int follower, int followee) {
+        int low = outOffsets.get(follower);
+        int high = outOffsets.get(follower + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int target = outTargets.get(middle);
+            if (target < followee) {
+                low = middle + 1;
+            } else if (target > followee) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Load the whole graph into memory.
+     *
+     * @return a UserGraph with the same users, ids and edges
+     */
+    public UserGraph toUserGraph() {
+        String[] names = new String[userCount];
+        for (int u = 0; u < userCount; u++) {
+            names[u] = name(u);
+        }
+        int[] offsets = new int[userCount + 1];
+        outOffsets.duplicate().get(offsets);
+        int[] targets = new int[edgeCount];
+        outTargets.duplicate().get(targets);
+        return new UserGraph(names, UserDictionary.of(names), offsets, targets);
+    }
+
+    private static int[] row(IntBuffer offsets, IntBuffer values, int user) {
+        IntBuffer row = values.duplicate();
+        row.limit(offsets.get(user + 1)).position(offsets.get(user));
+        int[] ids = new int[row.remaining()];
+        row.get(ids);
+        return ids;
+    }
+
+    /*
+     * Usernames of a list of user ids, decoded on each get().
+     */
+    private class NameList extends AbstractList<String> implements RandomAccess {
+        private final int[] users;
+
+        NameList(int[] users) {
+            this.users = users;
+        }
+
+        @Override public String get(int index) {
+            return name(users[index]);
+        }
+
+        @Override public int size() {
+            return users.length;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Write a follows graph as a binary snapshot, which GraphSnapshotReader can
+ * reopen by memory mapping and query without rebuilding the graph.
+ *
+ * A graph snapshot file is, with all numbers big-endian:
+ *
+ *   header   int magic, int version, int userCount, int edgeCount,
+ *            then for each of the SECTION_COUNT sections below a long
+ *            file offset and a long length in bytes
+ *   sections, each starting at a multiple of 8 bytes:
+ *     NAME_OFFSETS  int[userCount+1]  start of each username in NAME_BYTES
+ *     NAME_BYTES    UTF-8 lowercase usernames, in user id order
+ *     NAME_ORDER    int[userCount]    user ids in increasing order of
+ *                                     username bytes, compared unsigned
+ *     OUT_OFFSETS   int[userCount+1]  start of each user's row in OUT_TARGETS
+ *     OUT_TARGETS   int[edgeCount]    ids each user follows, increasing
+ *     IN_OFFSETS    int[userCount+1]  start of each user's row in IN_SOURCES
+ *     IN_SOURCES    int[edgeCount]    ids following each user, increasing
+ *
+ * User ids are those of the UserGraph written.
+ */
+public class GraphSnapshotWriter {
+
+    /** First four bytes of every graph snapshot file, "UGSN". */
+    public static final int MAGIC = 0x5547534E;
+
+    /** Format version written by this class. */
+    public static final int VERSION = 1;
+
+    static final int NAME_OFFSETS = 0;
+    static final int NAME_BYTES = 1;
+    static final int NAME_ORDER = 2;
+    static final int OUT_OFFSETS = 3;
+    static final int OUT_TARGETS = 4;
+    static final int IN_OFFSETS = 5;
+    static final int IN_SOURCES = 6;
+    static final int SECTION_COUNT = 7;
+
+    static final int HEADER_SIZE = SectionWriter.headerSize(SECTION_COUNT);
+
+    private final SectionWriter out;
+
+    private GraphSnapshotWriter(FileChannel channel) {
+        this.out = new SectionWriter(channel, SECTION_COUNT);
+    }
+
+    /**
+     * Write a graph to a snapshot file, replacing the file if it exists.
+     *
+     * @param graph graph to write
+     * @param file snapshot file to create
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(UserGraph graph, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new GraphSnapshotWriter(channel).writeSnapshot(graph);
+        }
+    }
+
+    private void writeSnapshot(UserGraph graph) throws IOException {
+        int userCount = graph.userCount();
+        byte[][] names = new byte[userCount][];
+        for (int u = 0; u < userCount; u++) {
+            names[u] = graph.name(u).getBytes(StandardCharsets.UTF_8);
+        }
+
+        int nameOffset = 0;
+        out.beginSection(NAME_OFFSETS);
+        for (byte[] name : names) {
+            out.putInt(nameOffset);
+            nameOffset += name.length;
+        }
+        out.putInt(nameOffset);
+        out.endSection(NAME_OFFSETS);
+
+        out.beginSection(NAME_BYTES);
+        for (byte[] name : names) {
+            out.putBytes(name);
+        }
+        out.endSection(NAME_BYTES);
+
+        int[] order = nameOrder(names);
+        out.beginSection(NAME_ORDER);
+        for (int user : order) {
+            out.putInt(user);
+        }
+        out.endSection(NAME_ORDER);
+
+        out.putInts(OUT_OFFSETS, graph.offsets());
+        out.putInts(OUT_TARGETS, graph.targets());
+        int[][] reverse = graph.reverse();
+        out.putInts(IN_OFFSETS, reverse[0]);
+        out.putInts(IN_SOURCES, reverse[1]);
+
+        out.writeHeader(MAGIC, VERSION, userCount, graph.edgeCount());
+    }
+
+    /*
+     * Lexicographic comparison of byte arrays as unsigned bytes, which for
+     * UTF-8 is the order of the strings' code points.
+     */
+    static int compareUnsigned(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int comparison = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /*
+     * @return the indexes of names in increasing order of compareUnsigned
+     */
+    static int[] nameOrder(byte[][] names) {
+        int[] order = new int[names.length];
+        for (int u = 0; u < order.length; u++) {
+            order[u] = u;
+        }
+        sortByName(order, names, 0, order.length, 0);
+        return order;
+    }
+
+    /*
+     * Sort order[lo..hi) by compareUnsigned of the names it indexes, given
+     * that those names agree on their first depth bytes: three-way radix
+     * quicksort, partitioning on the byte at depth (-1 past the end).
+     */
+    private static void sortByName(int[] order, byte[][] names, int lo, int hi, int depth) {
+        while (hi - lo > 1) {
+            int pivot = byteAt(names[order[lo + (hi - lo) / 2]], depth);
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i < gt) {
+                int b = byteAt(names[order[i]], depth);
+                if (b < pivot) {
+                    swap(order, lt++, i++);
+                } else if (b > pivot) {
+                    swap(order, i, --gt);
+                } else {
+                    i++;
+                }
+            }
+            sortByName(order, names, lo, lt, depth);
+            if (pivot >= 0) {
+                sortByName(order, names, lt, gt, depth + 1);
+            }
+            lo = gt;
+        }
+    }
+
+    private static int byteAt(byte[] name, int depth) {
+        return depth < name.length ? name[depth] & 0xFF : -1;
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int t = order[i];
+        order[i] = order[j];
+        order[j] = t;
+    }
+}
@@ -0,0 +1,301 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Finds pairs of authors whose hashtag usage is similar: the Jaccard
+ * similarity of the sets of hashtags they have tweeted is at least a
+ * threshold. Such authors probably follow each other.
+ *
+ * Comparing every pair of authors would take quadratic time, so each author's
+ * hashtag set is summarized by a MinHash signature of SIGNATURE_LENGTH
+ * minimum hashes, and locality-sensitive hashing groups authors whose
+ * signatures agree on some band of rows. Only authors sharing a band are
+ * compared, exactly. Pairs well above the threshold are found with high
+ * probability; a pair close to the threshold may be missed, and a pair
+ * reported always meets the threshold.
+ *
+ * A band bucket holding more than maxBucketSize authors pairs none of them.
+ * Such buckets are degenerate: they arise when many authors share the same
+ * small hashtag set, typically one popular hashtag, which is weak evidence
+ * of following and would otherwise cost time quadratic in the bucket. Those
+ * authors can still be paired through other bands in which their buckets
+ * are small, but identical hashtag sets share every bucket, so more than
+ * maxBucketSize authors with the same set are never paired. Capping buckets
+ * also bounds the candidates of one band to n * (maxBucketSize - 1) / 2
+ * for n authors; bands are checked one at a time.
+ */
+public class HashtagSimilarity {
+
+    /** Number of minimum hashes in each author's signature. */
+    public static final int SIGNATURE_LENGTH = 128;
+
+    /** Default maximum number of authors in a band bucket that are paired. */
+    public static final int DEFAULT_MAX_BUCKET_SIZE = 100;
+
+    private final double threshold;
+    private final int bands;
+    private final int rows;
+    private final int maxBucketSize;
+    /* Rep invariant:
+     *    0 < threshold <= 1
+     *    bands >= 1, rows >= 1, bands * rows <= SIGNATURE_LENGTH
+     *    maxBucketSize >= 2
+     * Abstraction function:
+     *    represents the search for author pairs with hashtag Jaccard
+     *    similarity >= threshold, using LSH with bands bands of rows rows,
+     *    ignoring buckets of more than maxBucketSize authors
+     */
+
+    /**
+     * Make a search for a similarity threshold, with bands and rows chosen so
+     * that pairs at the threshold usually become candidates.
+     *
+     * @param threshold minimum Jaccard similarity, 0 < threshold <= 1
+     */
+    public HashtagSimilarity(double threshold) {
+        this(threshold, rowsFor(threshold));
+    }
+
+    private HashtagSimilarity(double threshold, int rows) {
+        this(threshold, SIGNATURE_LENGTH / rows, rows);
+    }
+
+    /**
+     * Make a search with explicit LSH parameters. Pairs with similarity s
+     * become candidates with probability 1 - (1 - s^rows)^bands.
+     *
+     * @param threshold minimum Jaccard similarity, 0 < threshold <= 1
+     * @param bands number of bands, >= 1
+     * @param rows signature rows per band, >= 1, with bands * rows <=
+     *             SIGNATURE_LENGTH
+     */
+    public HashtagSimilarity(double threshold, int bands, int rows) {
+        this(threshold, bands, rows, DEFAULT_MAX_BUCKET_SIZE);
+    }
+
+    /**
+     * Make a search with explicit LSH parameters and bucket cap.
+     *
+     * @param threshold minimum Jaccard similarity, 0 < threshold <= 1
+     * @param bands number of bands, >= 1
+     * @param rows signature rows per band, >= 1, with bands * rows <=
+     *             SIGNATURE_LENGTH
+     * @param maxBucketSize largest band bucket whose authors are paired, >= 2
+     */
+    public HashtagSimilarity(double threshold, int bands, int rows, int maxBucketSize) {
+        if (!(threshold > 0 && threshold <= 1) || bands < 1 || rows < 1 || bands * rows > SIGNATURE_LENGTH
+                || maxBucketSize < 2) {
+            throw new IllegalArgumentException("invalid threshold, bands, rows or bucket size");
+        }
+        this.threshold = threshold;
+        this.bands = bands;
+        this.rows = rows;
+        this.maxBucketSize = maxBucketSize;
+    }
+
+    /*
+     * The most rows per band for which the LSH similarity at which pairs are
+     * as likely as not to become candidates, about (1/bands)^(1/rows), stays
+     * well below threshold.
+     */
+    private static int rowsFor(double threshold) {
+        int best = 1;
+        for (int rows = 1; rows <= SIGNATURE_LENGTH; rows++) {
+            int bands = SIGNATURE_LENGTH / rows;
+            if (Math.pow(1.0 / bands, 1.0 / rows) <= 0.8 * threshold) {
+                best = rows;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find authors with similar hashtag usage.
+     *
+     * @param tweets tweets, not modified by this method
+     * @return pairs { a, b } of distinct lowercase authors, a < b, whose
+     *         hashtag sets have Jaccard similarity at least the threshold,
+     *         sorted by a then b; authors who used no hashtags are never
+     *         paired, and authors are paired only through band buckets of
+     *         at most maxBucketSize authors, so more than maxBucketSize
+     *         authors with identical hashtag sets, although similarity 1,
+     *         are never paired with each other
+     */
+    public List<String[]> similarAuthors(List<Tweet> tweets) {
+        // collect (author, hashtag hash) for every hashtag of every tweet
+        UserDictionary dictionary = new UserDictionary();
+        int[] owners = new int[16];
+        long[] hashes = new long[16];
+        int count = 0;
+        for (Tweet tweet : tweets) {
+            String[] tags = MentionScanner.scanHashtags(tweet.getText());
+            if (tags.length == 0) {
+                continue;
+            }
+            int author = dictionary.intern(tweet.getAuthor());
+            if (count + tags.length > hashes.length) {
+                int capacity = Math.max(count + tags.length, hashes.length * 2);
+                owners = Arrays.copyOf(owners, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+            }
+            for (String tag : tags) {
+                owners[count] = author;
+                hashes[count++] = HyperLogLog.hash(tag);
+            }
+        }
+
+        // group the hashes by author, then sort and dedupe each group
+        int n = dictionary.size();
+        int[] starts = new int[n + 1];
+        for (int i = 0; i < count; i++) {
+            starts[owners[i] + 1]++;
+        }
+        for (int a = 0; a < n; a++) {
+            starts[a + 1] += starts[a];
+        }
+        long[] grouped = new long[count];
+        int[] fill = Arrays.copyOf(starts, n);
+        for (int i = 0; i < count; i++) {
+            grouped[fill[owners[i]]++] = hashes[i];
+        }
+        long[][] sets = new long[n][];
+        long[][] signatures = new long[n][];
+        IntStream.range(0, n).parallel().forEach(a -> {
+            Arrays.sort(grouped, starts[a], starts[a + 1]);
+            int distinct = 0;
+            for (int i = starts[a]; i < starts[a + 1]; i++) {
+                if (distinct == 0 || grouped[i] != grouped[starts[a] + distinct - 1]) {
+                    grouped[starts[a] + distinct++] = grouped[i];
+                }
+            }
+            sets[a] = Arrays.copyOfRange(grouped, starts[a], starts[a] + distinct);
+            signatures[a] = signature(sets[a]);
+        });
+
+        // candidates share all rows of at least one band: sort the authors
+        // by the high half of their band key, packed above the author, so a
+        // bucket is a run; a key collision only adds candidates. Candidates
+        // are checked exactly band by band, so only one band's candidates,
+        // at most n * (maxBucketSize - 1) / 2, are held at a time.
+        long[] candidates = new long[16];
+        long[] pairs = new long[16];
+        int pairCount = 0;
+        long[] keyed = new long[n];
+        for (int band = 0; band < bands; band++) {
+            for (int a = 0; a < n; a++) {
+                long key = band;
+                for (int row = band * rows; row < (band + 1) * rows; row++) {
+                    key = mix(key * 31 + signatures[a][row]);
+                }
+                keyed[a] = (key & 0xFFFFFFFF00000000L) | a;
+            }
+            Arrays.sort(keyed);
+            int candidateCount = 0;
+            int end;
+            for (int start = 0; start < n; start = end) {
+                long bucketKey = keyed[start] >>> 32;
+                end = start + 1;
+                while (end < n && keyed[end] >>> 32 == bucketKey) {
+                    end++;
+                }
+                if (end - start > maxBucketSize) {
+                    continue;
+                }
+                for (int i = start; i < end; i++) {
+                    for (int j = i + 1; j < end; j++) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = pair((int) keyed[i], (int) keyed[j]);
+                    }
+                }
+            }
+            for (int c = 0; c < candidateCount; c++) {
+                long candidate = candidates[c];
+                if (jaccard(sets[(int) (candidate >>> 32)], sets[(int) candidate]) >= threshold) {
+                    if (pairCount == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, pairCount * 2);
+                    }
+                    pairs[pairCount++] = candidate;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        List<String[]> similar = new ArrayList<>();
+        for (int p = 0; p < pairCount; p++) {
+            long pair = pairs[p];
+            if (p > 0 && pair == pairs[p - 1]) {
+                continue;
+            }
+            String first = dictionary.name((int) (pair >>> 32));
+            String second = dictionary.name((int) pair);
+            similar.add(first.compareTo(second) < 0
+                    ? new String[] { first, second } : new String[] { second, first });
+        }
+        similar.sort((p, q) -> p[0].equals(q[0]) ? p[1].compareTo(q[1]) : p[0].compareTo(q[0]));
+        return similar;
+    }
+
+    /*
+     * MinHash signature of a nonempty set of hashes: for each row, the
+     * minimum of a row-specific remixing of the hashes.
+     */
+    private static long[] signature(long[] set) {
+        long[] signature = new long[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long hash : set) {
+            for (int row = 0; row < SIGNATURE_LENGTH; row++) {
+                long value = mix(hash + (row + 1) * 0x9E3779B97F4A7C15L);
+                if (value < signature[row]) {
+                    signature[row] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /*
+     * Jaccard similarity of two sorted arrays of distinct values.
+     */
+    static double jaccard(long[] a, long[] b) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static long pair(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    /*
+     * MurmurHash3 fmix64.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,150 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * Mutable HyperLogLog sketch estimating the number of distinct strings added
+ * to it, in a fixed 2^precision bytes of memory. The standard error of the
+ * estimate is about 1.04 / sqrt(2^precision), e.g. 1.6% at the default
+ * precision 12 (4 KiB).
+ *
+ * Sketches of the same precision can be merged, so per-shard sketches can be
+ * combined into one for the union of the shards.
+ *
+ * A HyperLogLog is not thread-safe.
+ */
+public class HyperLogLog {
+
+    /** Smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Largest supported precision. */
+    public static final int MAX_PRECISION = 18;
+
+    /** Precision used by Extract when none is given. */
+    public static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+    /* Rep invariant:
+     *    MIN_PRECISION <= precision <= MAX_PRECISION
+     *    registers.length == 2^precision
+     *    0 <= registers[i] <= 64 - precision + 1
+     * Abstraction function:
+     *    represents a multiset of strings, summarized for each bucket i by
+     *    the largest position of the first 1 bit, registers[i], among the
+     *    hashes of the strings that fall into bucket i
+     */
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param precision number of bucket-index bits, MIN_PRECISION <= precision
+     *                  <= MAX_PRECISION
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("requires " + MIN_PRECISION + " <= precision <= " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @return the precision of this sketch
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Add a string to the sketch. Strings are compared exactly, so callers
+     * should case-fold usernames first.
+     *
+     * @param value string to add
+     */
+    public void add(CharSequence value) {
+        addHash(hash(value));
+    }
+
+    /**
+     * Add a pre-computed 64-bit hash to the sketch.
+     *
+     * @param hash well-mixed hash of the value to add
+     */
+    public void addHash(long hash) {
+        int bucket = (int) (hash >>> (Long.SIZE - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), Long.SIZE - precision) + 1;
+        if (rank > registers[bucket]) {
+            registers[bucket] = (byte) rank;
+        }
+    }
+
+    /**
+     * Add everything another sketch has seen to this one.
+     *
+     * @param other sketch of the same precision; not modified
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return estimated number of distinct strings added, rounded to the
+     *         nearest integer
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // linear counting for small cardinalities
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+        case 16:
+            return 0.673;
+        case 32:
+            return 0.697;
+        case 64:
+            return 0.709;
+        default:
+            return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /*
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3
+     * fmix64 step so every output bit depends on every input bit.
+     */
+    static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -4,11 +4,20 @@
 package twitter;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import javax.management.JMException;
+
+import twitter.StageGraph.Stage;
 
 /**
  * This is the main program.
@@ -24,6 +33,33 @@ public class Main {
      */
     public static final URL SAMPLE_SERVER = makeURLAssertWellFormatted("http://courses.csail.mit.edu/6.005/ps1_tweets/tweetPoll.py");
     
+    /**
+     * Command-line flag asking for the exact number of mentioned users, which
+     * needs memory proportional to that number, instead of an estimate.
+     */
+    public static final String EXACT_USERS_FLAG = "--exact-users";
+    
+    /**
+     * Command-line flag registering the pipeline's PipelineMetrics as JMX
+     * MBeans while it runs.
+     */
+    public static final String METRICS_FLAG = "--metrics";
+    
+    /**
+     * Prefix of the command-line flag "--metrics-report=FILE", which writes
+     * the pipeline's PipelineMetrics report to FILE as JSON when the program
+     * exits.
+     */
+    public static final String METRICS_REPORT_FLAG = "--metrics-report=";
+    
+    /**
+     * Prefix of the command-line flag "--parallelism=N", which runs at most N
+     * pipeline stages at once; by default, as many as there are processors.
+     * "--parallelism=1" runs the stages one at a time. The data-parallel work
+     * inside a stage still runs on the common fork-join pool either way.
+     */
+    public static final String PARALLELISM_FLAG = "--parallelism=";
+    
     private static URL makeURLAssertWellFormatted(String urlString) {
         try {
             return new URL(urlString);
@@ -36,7 +72,11 @@ public class Main {
      * Main method of the program. Fetches a sample of tweets and prints some
      * facts about it.
      * 
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments: "--exact-users" counts mentioned
+     *             users exactly instead of estimating the count; "--metrics"
+     *             exposes per-stage metrics over JMX; "--metrics-report=FILE"
+     *             writes them to FILE at exit; "--parallelism=N" runs at
+     *             most N stages at once
      */
     public static void main(String[] args) {
         try {
@@ -44,32 +84,120 @@ public class Main {
             throw new Error("Always run main and tests with assertions enabled");
         } catch (AssertionError ae) { }
         
-        final List<Tweet> tweets;
+        final List<String> arguments = Arrays.asList(args);
+        final PipelineMetrics metrics = startMetrics(arguments);
+        
+        final int parallelism = parallelism(arguments);
+        final ExecutorService executor = StageGraph.executor(parallelism);
         try {
-            tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
-        } catch (IOException ioe) {
-            throw new RuntimeException(ioe);
+            final StageGraph graph = new StageGraph(executor, metrics);
+            
+            // timespan, mentioned users and follows graph depend only on the
+            // tweets, so they run concurrently once the fetch is done
+            final Stage<List<Tweet>> fetch = graph.add(PipelineMetrics.FETCH_STAGE, () -> {
+                try {
+                    return TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
+                } catch (IOException ioe) {
+                    throw new RuntimeException(ioe);
+                }
+            });
+            final Stage<Timespan> timespan = graph.add("timespan", fetch, Extract::getTimespan);
+            // the exact mentioned users and the follows graph share one scan
+            // of each text
+            final Stage<MentionCache> mentions = graph.add("mentionCache", fetch, tweets -> {
+                final MentionCache cache = new MentionCache(tweets);
+                metrics.watch(cache);
+                return cache;
+            });
+            final boolean exact = arguments.contains(EXACT_USERS_FLAG);
+            final Stage<Long> mentionedUsers = exact
+                    ? graph.add("mentionedUsers", mentions, cache -> (long) Extract.getMentionedUsers(cache).size())
+                    : graph.add("mentionedUsers", fetch,
+                            tweets -> Extract.sketchMentionedUsers(tweets, HyperLogLog.DEFAULT_PRECISION).estimate());
+            final Stage<Map<String, Set<String>>> followsGraph = graph.add("followsGraph", mentions,
+                    SocialNetwork::guessFollowsGraph);
+            
+            // the top-N influencers
+            final int count = 10;
+            final Stage<List<String>> influencers = graph.add("influencers", followsGraph,
+                    follows -> SocialNetwork.influencers(follows, count));
+            
+            // display some characteristics about the tweets, in pipeline order
+            final List<Tweet> tweets = fetch.join();
+            metrics.countTweets(tweets);
+            System.err.println("fetched " + tweets.size() + " tweets");
+            
+            final Timespan span = timespan.join();
+            System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
+            
+            System.err.println("covers " + (exact ? "" : "about ") + mentionedUsers.join() + " Twitter users");
+            
+            System.err.println("follows graph has " + followsGraph.join().size() + " nodes");
+            
+            for (String username : influencers.join()) {
+                System.out.println(username);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /*
+     * @return number of stages to run at once, from the "--parallelism=N"
+     *         argument, or the number of available processors if there is none
+     * @throws IllegalArgumentException if N is not a positive integer
+     */
+    private static int parallelism(List<String> arguments) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (String argument : arguments) {
+            if (argument.startsWith(PARALLELISM_FLAG)) {
+                try {
+                    parallelism = Integer.parseInt(argument.substring(PARALLELISM_FLAG.length()));
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("parallelism must be an integer: " + argument, nfe);
+                }
+                if (parallelism < 1) {
+                    throw new IllegalArgumentException("parallelism must be positive: " + argument);
+                }
+            }
+        }
+        return parallelism;
+    }
+    
+    /*
+     * @return metrics for the pipeline, enabled and exposed as the arguments
+     *         ask, or PipelineMetrics.disabled() if they ask for none
+     */
+    private static PipelineMetrics startMetrics(List<String> arguments) {
+        Path report = null;
+        for (String argument : arguments) {
+            if (argument.startsWith(METRICS_REPORT_FLAG)) {
+                report = Paths.get(argument.substring(METRICS_REPORT_FLAG.length()));
+            }
+        }
+        if (report == null && !arguments.contains(METRICS_FLAG)) {
+            return PipelineMetrics.disabled();
         }
         
-        // display some characteristics about the tweets
-        System.err.println("fetched " + tweets.size() + " tweets");
-        
-        final Timespan span = Extract.getTimespan(tweets);
-        System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
-        
-        final Set<String> mentionedUsers = Extract.getMentionedUsers(tweets);
-        System.err.println("covers " + mentionedUsers.size() + " Twitter users");
-        
-        // infer the follows graph
-        final Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
-        System.err.println("follows graph has " + followsGraph.size() + " nodes");
-        
-        // print the top-N influencers
-        final int count = 10;
-        final List<String> influencers = SocialNetwork.influencers(followsGraph);
-        for (String username : influencers.subList(0, Math.min(count, influencers.size()))) {
-            System.out.println(username);
+        final PipelineMetrics metrics = PipelineMetrics.create();
+        if (arguments.contains(METRICS_FLAG)) {
+            try {
+                metrics.register(ManagementFactory.getPlatformMBeanServer());
+            } catch (JMException jme) {
+                System.err.println("cannot register metrics: " + jme);
+            }
+        }
+        if (report != null) {
+            final Path file = report;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    metrics.writeReport(file);
+                } catch (IOException ioe) {
+                    System.err.println("cannot write metrics report: " + ioe);
+                }
+            }));
         }
+        return metrics;
     }
     
 }
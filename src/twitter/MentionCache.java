@@ -0,0 +1,96 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Side table of the users mentioned in each tweet of one corpus, indexed by
+ * the tweet's position, so that passes over the same corpus, such as
+ * Extract.getMentionedUsers(MentionCache) followed by
+ * SocialNetwork.guessFollowsGraph(MentionCache), scan each text once.
+ *
+ * A caller makes a cache for a corpus and passes it to each pass; the cache
+ * holds only the mention arrays, and lives no longer than the caller keeps
+ * it. A tweet's mentions are scanned the first time they are asked for.
+ *
+ * A MentionCache is thread-safe.
+ */
+public class MentionCache {
+
+    private final List<Tweet> tweets;
+    private final AtomicReferenceArray<String[]> mentions;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    /* Rep invariant:
+     *    mentions.length() == tweets.size()
+     *    each non-null mentions[i] == MentionScanner.scan(tweets.get(i).getText())
+     *    hits and misses count the lookups answered from mentions and by
+     *      scanning, respectively
+     * Thread safety argument:
+     *    tweets is not modified; mentions and the counters are thread-safe,
+     *    and threads that race to fill the same slot store equal arrays
+     */
+
+    /**
+     * Make an empty cache for a corpus.
+     *
+     * @param tweets the corpus; must not be modified while the cache is used
+     */
+    public MentionCache(List<Tweet> tweets) {
+        this.tweets = tweets;
+        this.mentions = new AtomicReferenceArray<>(tweets.size());
+    }
+
+    /**
+     * @return the corpus this cache indexes; must not be modified
+     */
+    public List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * @return number of tweets in the corpus
+     */
+    public int size() {
+        return mentions.length();
+    }
+
+    /**
+     * Find the users mentioned in a tweet of the corpus, scanning its text
+     * only if it has not been scanned already.
+     *
+     * @param index position of the tweet in tweets(), 0 <= index < size()
+     * @return MentionScanner.scan(tweets().get(index).getText()); must not be
+     *         modified
+     */
+    public String[] mentionsOf(int index) {
+        String[] cached = mentions.get(index);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        String[] scanned = MentionScanner.scan(tweets.get(index).getText());
+        mentions.set(index, scanned);
+        return scanned;
+    }
+
+    /**
+     * @return number of mentionsOf calls answered from the cache so far
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of mentionsOf calls that scanned the tweet's text so far
+     */
+    public long misses() {
+        return misses.sum();
+    }
+}
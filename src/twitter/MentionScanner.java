@@ -0,0 +1,190 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass scanner for username-mentions in tweet text, as defined by
+ * Extract.getMentionedUsers: "@" followed by a run of letters, digits and
+ * underscores, where the "@" is not immediately preceded by any of those
+ * characters. Equivalent to finding every match of the regex
+ * (?<!\w)@([a-zA-Z0-9_]+)(?!\w), without the regex machinery.
+ *
+ * Hashtags are scanned the same way, with "#" in place of "@".
+ */
+public class MentionScanner {
+
+    private static final String[] NO_MENTIONS = new String[0];
+
+    private MentionScanner() {
+        // static methods only
+    }
+
+    /**
+     * Find the users mentioned in a text.
+     *
+     * @param text tweet text
+     * @return the mentioned usernames, lowercased, each at most once, in order
+     *         of first mention; a shared empty array if there are none.
+     */
+    public static String[] scan(CharSequence text) {
+        return scan(text, '@');
+    }
+
+    /**
+     * Find the hashtags in a text.
+     *
+     * @param text tweet text
+     * @return the hashtags without their "#", lowercased, each at most once,
+     *         in order of first use; a shared empty array if there are none.
+     */
+    public static String[] scanHashtags(CharSequence text) {
+        return scan(text, '#');
+    }
+
+    private static String[] scan(CharSequence text, char marker) {
+        String[] mentions = NO_MENTIONS;
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int end = endOfName(text, i, marker);
+            if (end < 0) {
+                continue;
+            }
+
+            String username = toLowerAscii(text, i + 1, end);
+            if (!contains(mentions, count, username)) {
+                if (count == mentions.length) {
+                    mentions = Arrays.copyOf(mentions, Math.max(2, count * 2));
+                }
+                mentions[count++] = username;
+            }
+            i = end - 1;
+        }
+        return count == mentions.length ? mentions : Arrays.copyOf(mentions, count);
+    }
+
+    /**
+     * Find the users mentioned in a UTF-8 encoded text, without decoding it.
+     * Every character a mention is made of, or bounded by, is ASCII, and no
+     * byte of a multi-byte UTF-8 sequence is ASCII, so the bytes can be
+     * scanned directly.
+     *
+     * @param utf8 array holding the text
+     * @param offset index of the text's first byte
+     * @param length number of bytes in the text
+     * @return scan(text), for the text the bytes encode
+     */
+    public static String[] scan(byte[] utf8, int offset, int length) {
+        String[] mentions = NO_MENTIONS;
+        int count = 0;
+        int limit = offset + length;
+        for (int i = offset; i < limit; i++) {
+            if (utf8[i] != '@' || (i > offset && isUsernameChar((char) utf8[i - 1]))) {
+                continue;
+            }
+            int end = i + 1;
+            while (end < limit && isUsernameChar((char) utf8[end])) {
+                end++;
+            }
+            if (end == i + 1) {
+                continue;
+            }
+
+            char[] chars = new char[end - i - 1];
+            for (int j = i + 1; j < end; j++) {
+                char c = (char) utf8[j];
+                chars[j - i - 1] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+            }
+            String username = new String(chars);
+            if (!contains(mentions, count, username)) {
+                if (count == mentions.length) {
+                    mentions = Arrays.copyOf(mentions, Math.max(2, count * 2));
+                }
+                mentions[count++] = username;
+            }
+            i = end - 1;
+        }
+        return count == mentions.length ? mentions : Arrays.copyOf(mentions, count);
+    }
+
+    /**
+     * Find the users mentioned in a text, as ids, without creating a string
+     * for each mention.
+     *
+     * @param text tweet text
+     * @param dictionary dictionary in which to intern the mentioned usernames
+     * @return the ids of the mentioned usernames, each at most once, in order
+     *         of first mention
+     */
+    public static int[] scanIds(CharSequence text, UserDictionary dictionary) {
+        int[] ids = new int[4];
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int end = endOfName(text, i, '@');
+            if (end < 0) {
+                continue;
+            }
+
+            int id = dictionary.intern(text, i + 1, end);
+            if (!contains(ids, count, id)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+            }
+            i = end - 1;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /*
+     * @return index after the name in the mention or hashtag whose marker is
+     *         text[i], or -1 if none starts at i
+     */
+    private static int endOfName(CharSequence text, int i, char marker) {
+        if (text.charAt(i) != marker || (i > 0 && isUsernameChar(text.charAt(i - 1)))) {
+            return -1;
+        }
+        int end = i + 1;
+        while (end < text.length() && isUsernameChar(text.charAt(end))) {
+            end++;
+        }
+        return end == i + 1 ? -1 : end;
+    }
+
+    /*
+     * @return true iff c is in the regex class \w, [a-zA-Z0-9_]
+     */
+    private static boolean isUsernameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static String toLowerAscii(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            chars[i - start] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        return new String(chars);
+    }
+
+    private static boolean contains(String[] mentions, int count, String username) {
+        for (int i = 0; i < count; i++) {
+            if (mentions[i].equals(username)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] ids, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
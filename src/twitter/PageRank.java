@@ -0,0 +1,279 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable PageRank influence scores for the users of a follows graph: a
+ * user is influential if influential users follow them. Scores are positive
+ * and sum to 1.
+ *
+ * Scores are computed by power iteration. Each iteration pulls rank along the
+ * reversed follows edges into a fresh double[] vector, splitting the users
+ * into ranges that run as fork-join tasks, until the L1 distance between
+ * successive vectors falls below a tolerance. A user who follows nobody
+ * spreads their rank evenly over everybody.
+ */
+public class PageRank {
+
+    /** Default probability of following an edge rather than jumping. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Default L1 distance between iterations at which to stop. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /** Default maximum number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /*
+     * Number of users below which a range is ranked sequentially.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+
+    private final UserGraph graph;
+    private final double[] scores;
+    private final int iterations;
+    private final boolean converged;
+    /* Rep invariant:
+     *    scores.length == graph.userCount(), every score > 0
+     *    0 <= iterations
+     * Abstraction function:
+     *    represents the PageRank of user graph.name(u) as scores[u], reached
+     *    after the given number of iterations, converged iff the last
+     *    iteration moved less than the tolerance
+     */
+
+    private PageRank(UserGraph graph, double[] scores, int iterations, boolean converged) {
+        this.graph = graph;
+        this.scores = scores;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /**
+     * Compute PageRank with the default damping, tolerance and iteration
+     * limit, in the common fork-join pool.
+     *
+     * @param graph follows graph
+     * @return PageRank scores of graph's users
+     */
+    public static PageRank compute(UserGraph graph) {
+        return compute(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute PageRank.
+     *
+     * @param graph follows graph
+     * @param damping probability of following an edge rather than jumping to
+     *                a random user, 0 <= damping < 1
+     * @param tolerance stop once successive score vectors are less than this
+     *                  far apart in L1 distance, > 0
+     * @param maxIterations stop after this many iterations even if not
+     *                      converged, >= 1
+     * @param pool pool to run the iterations in
+     * @return PageRank scores of graph's users
+     */
+    public static PageRank compute(UserGraph graph, double damping, double tolerance, int maxIterations,
+            ForkJoinPool pool) {
+        if (!(damping >= 0 && damping < 1) || !(tolerance > 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("invalid damping, tolerance or iteration limit");
+        }
+        int n = graph.userCount();
+        if (n == 0) {
+            return new PageRank(graph, new double[0], 0, true);
+        }
+
+        int[] offsets = graph.offsets();
+        int[][] reverse = graph.reverse();
+        int[] inOffsets = reverse[0];
+        int[] sources = reverse[1];
+
+        Iteration iteration = new Iteration(n, damping, offsets, inOffsets, sources);
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        double[] share = new double[n];
+        double dangling = 0;
+        for (int u = 0; u < n; u++) {
+            int outDegree = offsets[u + 1] - offsets[u];
+            if (outDegree == 0) {
+                dangling += rank[u];
+            } else {
+                share[u] = rank[u] / outDegree;
+            }
+        }
+
+        double[] nextRank = new double[n];
+        double[] nextShare = new double[n];
+        for (int i = 1; i <= maxIterations; i++) {
+            double[] sums = pool.invoke(iteration.task(rank, share, dangling, nextRank, nextShare, 0, n));
+            double[] swap = rank;
+            rank = nextRank;
+            nextRank = swap;
+            swap = share;
+            share = nextShare;
+            nextShare = swap;
+            dangling = sums[1];
+            if (sums[0] < tolerance) {
+                return new PageRank(graph, rank, i, true);
+            }
+        }
+        return new PageRank(graph, rank, maxIterations, false);
+    }
+
+    /**
+     * @return number of power iterations run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return true iff the iteration stopped because it reached the tolerance
+     */
+    public boolean converged() {
+        return converged;
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return the user's score, or 0 if the user is not in the graph
+     */
+    public double score(String username) {
+        int user = graph.id(username);
+        return user < 0 ? 0 : scores[user];
+    }
+
+    /**
+     * @return scores indexed by the graph's user ids
+     */
+    public double[] scores() {
+        return scores.clone();
+    }
+
+    /**
+     * Find the k most influential users by PageRank.
+     *
+     * @param k number of usernames wanted, >= 0
+     * @return the min(k, number of users) usernames with the highest scores,
+     *         in descending order of score, ties broken alphabetically
+     */
+    public List<String> influencers(int k) {
+        int[] top = TopK.select(scores.length, k, this::ranksBefore);
+        String[] ranked = new String[top.length];
+        for (int i = 0; i < top.length; i++) {
+            ranked[i] = graph.name(top[i]);
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * @return every username in the graph, in descending order of score, ties
+     *         broken alphabetically
+     */
+    public List<String> influencers() {
+        return influencers(scores.length);
+    }
+
+    private boolean ranksBefore(int u, int v) {
+        int comparison = Double.compare(scores[u], scores[v]);
+        return comparison != 0 ? comparison > 0 : graph.name(u).compareTo(graph.name(v)) < 0;
+    }
+
+    /*
+     * The fixed data of one PageRank computation, shared by its tasks.
+     */
+    private static final class Iteration {
+        private final int n;
+        private final double damping;
+        private final int[] offsets;
+        private final int[] inOffsets;
+        private final int[] sources;
+
+        Iteration(int n, double damping, int[] offsets, int[] inOffsets, int[] sources) {
+            this.n = n;
+            this.damping = damping;
+            this.offsets = offsets;
+            this.inOffsets = inOffsets;
+            this.sources = sources;
+        }
+
+        RankTask task(double[] rank, double[] share, double dangling, double[] nextRank, double[] nextShare,
+                int from, int to) {
+            return new RankTask(this, rank, share, dangling, nextRank, nextShare, from, to);
+        }
+    }
+
+    /*
+     * Computes nextRank[from..to) from rank, and nextShare for the same users.
+     * Returns { L1 distance over the range, total next rank of users who
+     * follow nobody in the range }.
+     */
+    private static final class RankTask extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Iteration iteration;
+        private final double[] rank;
+        private final double[] share;
+        private final double dangling;
+        private final double[] nextRank;
+        private final double[] nextShare;
+        private final int from;
+        private final int to;
+
+        RankTask(Iteration iteration, double[] rank, double[] share, double dangling, double[] nextRank,
+                double[] nextShare, int from, int to) {
+            this.iteration = iteration;
+            this.rank = rank;
+            this.share = share;
+            this.dangling = dangling;
+            this.nextRank = nextRank;
+            this.nextShare = nextShare;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected double[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                RankTask left = iteration.task(rank, share, dangling, nextRank, nextShare, from, middle);
+                RankTask right = iteration.task(rank, share, dangling, nextRank, nextShare, middle, to);
+                left.fork();
+                double[] rightSums = right.compute();
+                double[] leftSums = left.join();
+                return new double[] { leftSums[0] + rightSums[0], leftSums[1] + rightSums[1] };
+            }
+
+            int n = iteration.n;
+            double damping = iteration.damping;
+            int[] offsets = iteration.offsets;
+            int[] inOffsets = iteration.inOffsets;
+            int[] sources = iteration.sources;
+            double base = (1 - damping) / n + damping * dangling / n;
+            double distance = 0;
+            double nextDangling = 0;
+            for (int v = from; v < to; v++) {
+                double sum = 0;
+                for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                    sum += share[sources[e]];
+                }
+                double value = base + damping * sum;
+                nextRank[v] = value;
+                distance += Math.abs(value - rank[v]);
+                int outDegree = offsets[v + 1] - offsets[v];
+                if (outDegree == 0) {
+                    nextShare[v] = 0;
+                    nextDangling += value;
+                } else {
+                    nextShare[v] = value / outDegree;
+                }
+            }
+            return new double[] { distance, nextDangling };
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonWriter;
+import javax.json.JsonWriterFactory;
+import javax.json.stream.JsonGenerator;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentation of the Main pipeline: a StageMetrics per stage, counters of
+ * the tweets and text bytes fetched, and the hit rate of the MentionCache
+ * shared by the Extract and SocialNetwork stages.
+ *
+ * The metrics can be registered as JMX MBeans, "twitter:type=Pipeline" and
+ * "twitter:type=Stage,name=<stage>", and written as a JSON report. The
+ * instance returned by disabled() records nothing, so instrumented code costs
+ * only a call when metrics are off.
+ *
+ * A PipelineMetrics is thread-safe.
+ */
+public class PipelineMetrics implements PipelineMetricsMBean {
+
+    /** JMX domain of the registered MBeans. */
+    public static final String DOMAIN = "twitter";
+
+    /** Name of the stage that fetches tweets, whose time throughput is measured over. */
+    public static final String FETCH_STAGE = "fetch";
+
+    private static final PipelineMetrics DISABLED = new PipelineMetrics(false);
+
+    /**
+     * A unit of work timed as a stage.
+     *
+     * @param <T> type of the work's result
+     * @param <X> type of exception the work may throw
+     */
+    public interface Work<T, X extends Exception> {
+        /**
+         * @return the result of the work
+         * @throws X if the work fails
+         */
+        T run() throws X;
+    }
+
+    private final boolean enabled;
+    private final long createdNanos = System.nanoTime();
+    private final Map<String, StageMetrics> stages = new ConcurrentHashMap<>();
+    private final List<String> stageOrder = Collections.synchronizedList(new ArrayList<String>());
+    private final LongAdder tweets = new LongAdder();
+    private final LongAdder textBytes = new LongAdder();
+    private volatile MentionCache mentionCache;
+    private final com.sun.management.ThreadMXBean threads;
+    private MBeanServer server;
+    private final List<ObjectName> registered = new ArrayList<>();
+    /* Rep invariant:
+     *    if !enabled, stages is empty and the counters are 0
+     *    stageOrder holds the keys of stages, in order of first run
+     *    if !enabled, mentionCache is null
+     *    threads is null unless it measures per-thread allocation
+     *    if server is not null, registered names this and every stage
+     *      registered with it
+     * Thread safety argument:
+     *    stages, stageOrder and the counters are thread-safe, and
+     *    mentionCache is volatile; server and registered are guarded by this
+     */
+
+    private PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.threads = enabled ? allocationBean() : null;
+    }
+
+    /**
+     * @return new, empty metrics that record what they are given
+     */
+    public static PipelineMetrics create() {
+        return new PipelineMetrics(true);
+    }
+
+    /**
+     * @return metrics that record nothing and report zeros
+     */
+    public static PipelineMetrics disabled() {
+        return DISABLED;
+    }
+
+    /*
+     * @return the platform thread bean if it can measure allocation, else null
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+            if (allocation.isThreadAllocatedMemorySupported()) {
+                if (!allocation.isThreadAllocatedMemoryEnabled()) {
+                    allocation.setThreadAllocatedMemoryEnabled(true);
+                }
+                return allocation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true iff these metrics record anything
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run work as one run of a stage, recording its latency and the bytes
+     * allocated by the calling thread, if enabled. Work the stage hands to
+     * other threads is not counted in its allocation.
+     *
+     * @param stage name of the stage
+     * @param work work to run
+     * @return work's result
+     * @throws X if work throws; the failed run is not recorded
+     */
+    public <T, X extends Exception> T time(String stage, Work<T, X> work) throws X {
+        if (!enabled) {
+            return work.run();
+        }
+        long startBytes = allocatedBytes();
+        long start = System.nanoTime();
+        T result = work.run();
+        long nanos = System.nanoTime() - start;
+        long endBytes = allocatedBytes();
+        stage(stage).record(nanos, startBytes < 0 || endBytes < 0 ? -1 : endBytes - startBytes);
+        return result;
+    }
+
+    private long allocatedBytes() {
+        if (threads == null) {
+            return -1;
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Count fetched tweets, if enabled.
+     *
+     * @param fetched tweets, not modified by this method
+     */
+    public void countTweets(List<Tweet> fetched) {
+        if (!enabled) {
+            return;
+        }
+        long bytes = 0;
+        for (Tweet tweet : fetched) {
+            bytes += utf8Length(tweet.getText());
+        }
+        tweets.add(fetched.size());
+        textBytes.add(bytes);
+    }
+
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @param name name of a stage
+     * @return the stage's metrics, created empty if it has not run; changes
+     *         to them are not kept if these metrics are disabled
+     */
+    public StageMetrics stage(String name) {
+        if (!enabled) {
+            return new StageMetrics(name);
+        }
+        StageMetrics metrics = stages.get(name);
+        if (metrics == null) {
+            StageMetrics created = new StageMetrics(name);
+            metrics = stages.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+                stageOrder.add(name);
+                registerStage(created);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return names of the stages that have run, in order of first completed
+     *         run
+     */
+    public List<String> stageNames() {
+        synchronized (stageOrder) {
+            return new ArrayList<>(stageOrder);
+        }
+    }
+
+    @Override public long getTweets() {
+        return tweets.sum();
+    }
+
+    @Override public long getTextBytes() {
+        return textBytes.sum();
+    }
+
+    @Override public double getElapsedMillis() {
+        return (System.nanoTime() - createdNanos) / 1e6;
+    }
+
+    @Override public double getTweetsPerSecond() {
+        return perFetchSecond(tweets.sum());
+    }
+
+    @Override public double getTextBytesPerSecond() {
+        return perFetchSecond(textBytes.sum());
+    }
+
+    /*
+     * @return amount per second of time spent in the fetch stage, which does
+     *         not keep falling while the rest of the process runs; 0 if the
+     *         stage has not run
+     */
+    private double perFetchSecond(long amount) {
+        StageMetrics fetch = stages.get(FETCH_STAGE);
+        double seconds = fetch == null ? 0 : fetch.getTotalMillis() / 1e3;
+        return seconds > 0 ? amount / seconds : 0;
+    }
+
+    /**
+     * Report the hit rate of a mention cache, replacing any cache watched
+     * before, if enabled.
+     *
+     * @param cache cache shared by the pipeline's stages
+     */
+    public void watch(MentionCache cache) {
+        if (enabled) {
+            mentionCache = cache;
+        }
+    }
+
+    @Override public long getMentionCacheHits() {
+        MentionCache cache = mentionCache;
+        return cache == null ? 0 : cache.hits();
+    }
+
+    @Override public long getMentionCacheMisses() {
+        MentionCache cache = mentionCache;
+        return cache == null ? 0 : cache.misses();
+    }
+
+    @Override public double getMentionCacheHitRate() {
+        long hits = getMentionCacheHits();
+        long lookups = hits + getMentionCacheMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Register these metrics and their stages as MBeans, replacing any
+     * already registered under the same names. Stages that first run later
+     * are registered as they appear. Does nothing if disabled.
+     *
+     * @param server MBean server, such as ManagementFactory.getPlatformMBeanServer()
+     * @throws JMException if registration fails
+     */
+    public synchronized void register(MBeanServer server) throws JMException {
+        if (!enabled) {
+            return;
+        }
+        this.server = server;
+        register(new ObjectName(DOMAIN + ":type=Pipeline"), this);
+        for (String name : stageNames()) {
+            register(stageName(name), stages.get(name));
+        }
+    }
+
+    /*
+     * Register a new stage if these metrics are registered. A stage whose
+     * name cannot be registered is still recorded and reported.
+     */
+    private synchronized void registerStage(StageMetrics stage) {
+        if (server == null) {
+            return;
+        }
+        try {
+            register(stageName(stage.getName()), stage);
+        } catch (JMException jme) {
+            // leave the stage out of JMX
+        }
+    }
+
+    /**
+     * @param stage name of a stage
+     * @return the MBean name under which register() registers the stage
+     * @throws JMException if stage cannot be part of an MBean name
+     */
+    public static ObjectName stageName(String stage) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Stage,name=" + ObjectName.quote(stage));
+    }
+
+    /*
+     * Requires lock on this, and server not null.
+     */
+    private void register(ObjectName name, Object mbean) throws JMException {
+        if (registered.contains(name)) {
+            return;
+        }
+        try {
+            server.registerMBean(mbean, name);
+        } catch (InstanceAlreadyExistsException iaee) {
+            server.unregisterMBean(name);
+            server.registerMBean(mbean, name);
+        }
+        registered.add(name);
+    }
+
+    /**
+     * Unregister every MBean registered by register, and stop registering
+     * new stages.
+     *
+     * @throws JMException if unregistration fails
+     */
+    public synchronized void unregister() throws JMException {
+        for (ObjectName name : registered) {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        registered.clear();
+        server = null;
+    }
+
+    /**
+     * @return a JSON object with the pipeline's counters and, under "stages",
+     *         an object per stage with its latency percentiles and
+     *         caller-thread allocation, in order of first run
+     */
+    public JsonObject report() {
+        JsonArrayBuilder stageReports = Json.createArrayBuilder();
+        for (String name : stageNames()) {
+            StageMetrics stage = stages.get(name);
+            stageReports.add(Json.createObjectBuilder()
+                    .add("name", name)
+                    .add("count", stage.getCount())
+                    .add("totalMillis", stage.getTotalMillis())
+                    .add("meanMillis", stage.getMeanMillis())
+                    .add("p50Millis", stage.getP50Millis())
+                    .add("p90Millis", stage.getP90Millis())
+                    .add("p99Millis", stage.getP99Millis())
+                    .add("maxMillis", stage.getMaxMillis())
+                    .add("callerThreadAllocatedBytes", stage.getCallerThreadAllocatedBytes()));
+        }
+        JsonObjectBuilder report = Json.createObjectBuilder()
+                .add("elapsedMillis", getElapsedMillis())
+                .add("tweets", getTweets())
+                .add("textBytes", getTextBytes())
+                .add("tweetsPerSecond", getTweetsPerSecond())
+                .add("textBytesPerSecond", getTextBytesPerSecond())
+                .add("mentionCacheHits", getMentionCacheHits())
+                .add("mentionCacheMisses", getMentionCacheMisses())
+                .add("mentionCacheHitRate", getMentionCacheHitRate())
+                .add("stages", stageReports);
+        return report.build();
+    }
+
+    /**
+     * Write report() to a UTF-8 file, replacing the file if it exists.
+     *
+     * @param file file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeReport(Path file) throws IOException {
+        JsonWriterFactory factory = Json.createWriterFactory(
+                Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                JsonWriter json = factory.createWriter(writer)) {
+            json.writeObject(report());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * JMX management interface of a PipelineMetrics: throughput of the Main
+ * pipeline and hit rates of the indexes it uses. Each stage has its own
+ * StageMetricsMBean.
+ */
+public interface PipelineMetricsMBean {
+
+    /** @return number of tweets fetched */
+    long getTweets();
+
+    /** @return total UTF-8 size of the fetched tweets' texts, in bytes */
+    long getTextBytes();
+
+    /** @return time since the metrics were created, in milliseconds */
+    double getElapsedMillis();
+
+    /** @return tweets fetched per second spent in the fetch stage; 0 before it runs */
+    double getTweetsPerSecond();
+
+    /** @return text bytes fetched per second spent in the fetch stage; 0 before it runs */
+    double getTextBytesPerSecond();
+
+    /** @return mention lookups answered by the watched MentionCache; 0 if none */
+    long getMentionCacheHits();
+
+    /** @return mention lookups that missed the watched MentionCache; 0 if none */
+    long getMentionCacheMisses();
+
+    /** @return hits / (hits + misses) of the watched MentionCache; 0 before any lookup */
+    double getMentionCacheHitRate();
+}
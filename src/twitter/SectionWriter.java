@@ -0,0 +1,163 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered writer of the binary snapshot layout shared by
+ * TweetSnapshotWriter and GraphSnapshotWriter: a header of four ints (magic,
+ * version and two counts) and a long offset and length for each section,
+ * followed by the sections, each starting at a multiple of 8 bytes. All
+ * numbers are big-endian.
+ *
+ * Sections are written first, in any order, starting just after the header;
+ * writeHeader then flushes them and fills in the header.
+ *
+ * A SectionWriter is not thread-safe.
+ */
+class SectionWriter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final long[] sectionOffsets;
+    private final long[] sectionLengths;
+    private long position;
+    /* Rep invariant:
+     *    sectionOffsets.length == sectionLengths.length
+     *    position >= headerSize(sectionOffsets.length)
+     *    buffer holds the bytes written before position that are not yet
+     *      in the file, which end at position
+     */
+
+    /**
+     * @param sectionCount number of sections in the format
+     * @return size in bytes of the header of a format with sectionCount
+     *         sections
+     */
+    static int headerSize(int sectionCount) {
+        return 4 * Integer.BYTES + sectionCount * 2 * Long.BYTES;
+    }
+
+    /**
+     * Make a writer of a snapshot into an empty file.
+     *
+     * @param channel channel of the file, open for writing
+     * @param sectionCount number of sections in the format
+     */
+    SectionWriter(FileChannel channel, int sectionCount) {
+        this.channel = channel;
+        this.sectionOffsets = new long[sectionCount];
+        this.sectionLengths = new long[sectionCount];
+        this.position = headerSize(sectionCount);
+    }
+
+    /**
+     * Pad to a multiple of 8 bytes and start a section.
+     *
+     * @param section index of the section, 0 <= section < sectionCount
+     * @throws IOException if the file cannot be written
+     */
+    void beginSection(int section) throws IOException {
+        while (position % Long.BYTES != 0) {
+            ensureCapacity(1);
+            buffer.put((byte) 0);
+            position++;
+        }
+        sectionOffsets[section] = position;
+    }
+
+    /**
+     * End the section begun most recently.
+     *
+     * @param section index of that section
+     */
+    void endSection(int section) {
+        sectionLengths[section] = position - sectionOffsets[section];
+    }
+
+    void putLong(long value) throws IOException {
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value);
+        position += Long.BYTES;
+    }
+
+    void putInt(int value) throws IOException {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+        position += Integer.BYTES;
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureCapacity(1);
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+            position += n;
+        }
+    }
+
+    /**
+     * Write a whole section of ints.
+     *
+     * @param section index of the section, 0 <= section < sectionCount
+     * @param values contents of the section
+     * @throws IOException if the file cannot be written
+     */
+    void putInts(int section, int[] values) throws IOException {
+        beginSection(section);
+        for (int value : values) {
+            putInt(value);
+        }
+        endSection(section);
+    }
+
+    /**
+     * Flush the sections and write the header. No more may be written after.
+     *
+     * @param magic first int of the file
+     * @param version format version
+     * @param firstCount first count of the format
+     * @param secondCount second count of the format
+     * @throws IOException if the file cannot be written
+     */
+    void writeHeader(int magic, int version, int firstCount, int secondCount) throws IOException {
+        flush();
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize(sectionOffsets.length));
+        header.putInt(magic).putInt(version).putInt(firstCount).putInt(secondCount);
+        for (int section = 0; section < sectionOffsets.length; section++) {
+            header.putLong(sectionOffsets[section]).putLong(sectionLengths[section]);
+        }
+        header.flip();
+        long headerPosition = 0;
+        while (header.hasRemaining()) {
+            headerPosition += channel.write(header, headerPosition);
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /*
+     * Write the buffered bytes so that they end at position.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        long filePosition = position - buffer.remaining();
+        while (buffer.hasRemaining()) {
+            filePosition += channel.write(buffer, filePosition);
+        }
+        buffer.clear();
+    }
+}
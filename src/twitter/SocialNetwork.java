@@ -41,7 +41,39 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        throw new RuntimeException("not implemented");
+        return UserGraph.fromTweets(tweets).asMap();
+    }
+
+    /**
+     * Guess who might follow whom, as guessFollowsGraph(List) does, reusing
+     * the mentions already found by other passes over the same cache.
+     * 
+     * @param mentions
+     *            mention cache of a list of tweets providing the evidence.
+     * @return guessFollowsGraph(mentions.tweets())
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(MentionCache mentions) {
+        return UserGraph.fromTweets(mentions).asMap();
+    }
+
+    /**
+     * Guess who might follow whom from @-mentions, as guessFollowsGraph does,
+     * and also from shared hashtags: two authors whose sets of hashtags used
+     * have Jaccard similarity at least hashtagThreshold follow each other.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param hashtagThreshold
+     *            minimum Jaccard similarity, 0 < hashtagThreshold <= 1; pairs
+     *            are found approximately, so a pair very close to the
+     *            threshold may be missed.
+     * @return a social network (as defined above) with the mention edges of
+     *         guessFollowsGraph(tweets) and edges both ways between authors
+     *         with similar hashtag usage.
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets, double hashtagThreshold) {
+        return UserGraph.fromTweets(tweets, new HashtagSimilarity(hashtagThreshold)).asMap();
     }
 
     /**
@@ -54,7 +86,40 @@ public class SocialNetwork {
      *         descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
-        throw new RuntimeException("not implemented");
+        return UserGraph.fromMap(followsGraph).influencers();
+    }
+
+    /**
+     * Find the k people in a social network with the most followers, without
+     * ranking everybody else.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            number of usernames wanted, >= 0
+     * @return the first min(k, n) usernames of influencers(followsGraph),
+     *         where n is the number of distinct usernames in followsGraph;
+     *         usernames are lowercase, and equal follower counts are ordered
+     *         alphabetically.
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, int k) {
+        return UserGraph.fromMap(followsGraph).influencers(k);
+    }
+
+    /**
+     * Find the k people in a social network with the greatest PageRank, which
+     * credits a follower in proportion to the follower's own influence.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            number of usernames wanted, >= 0
+     * @return min(k, n) lowercase usernames of followsGraph in descending
+     *         order of PageRank, where n is the number of distinct usernames
+     *         in followsGraph; equal scores are ordered alphabetically.
+     */
+    public static List<String> influencersByPageRank(Map<String, Set<String>> followsGraph, int k) {
+        return PageRank.compute(UserGraph.fromMap(followsGraph)).influencers(k);
     }
 
 }
@@ -0,0 +1,163 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Small dataflow executor for pipelines of stages. A stage starts on the
+ * executor as soon as the stages it depends on have finished, so independent
+ * stages run concurrently, up to the executor's parallelism, and each result
+ * is computed once however many stages use it. Every run is timed by a
+ * PipelineMetrics under the stage's name.
+ *
+ * If a stage throws, the stages that depend on it fail with the same
+ * exception without running.
+ *
+ * A StageGraph is thread-safe; stages may be added from any thread, in any
+ * order consistent with their dependencies.
+ */
+public class StageGraph {
+
+    private final Executor executor;
+    private final PipelineMetrics metrics;
+
+    /**
+     * Make a graph whose stages are not timed.
+     *
+     * @param executor executor on which to run the stages
+     */
+    public StageGraph(Executor executor) {
+        this(executor, PipelineMetrics.disabled());
+    }
+
+    /**
+     * Make a graph.
+     *
+     * @param executor executor on which to run the stages
+     * @param metrics metrics recording each stage's runs
+     */
+    public StageGraph(Executor executor, PipelineMetrics metrics) {
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Make an executor that runs at most parallelism stages at once. Its
+     * threads are plain daemon threads, not fork-join workers, so parallel
+     * streams inside a stage still run on the common pool rather than being
+     * limited to the stage's thread.
+     *
+     * @param parallelism maximum number of stages to run at once, > 0
+     * @return the executor; the caller should shut it down when done
+     */
+    public static ExecutorService executor(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("requires parallelism > 0");
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "stage-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add a stage with no inputs, started immediately.
+     *
+     * @param name name of the stage
+     * @param work computes the stage's result
+     * @return the stage
+     */
+    public <T> Stage<T> add(String name, Supplier<? extends T> work) {
+        return new Stage<T>(name, CompletableFuture.supplyAsync(() -> metrics.time(name, work::get), executor));
+    }
+
+    /**
+     * Add a stage with one input, started when the input is ready.
+     *
+     * @param name name of the stage
+     * @param input stage whose result is the input
+     * @param work computes the stage's result from the input
+     * @return the stage
+     */
+    public <A, T> Stage<T> add(String name, Stage<A> input, Function<? super A, ? extends T> work) {
+        return new Stage<T>(name, input.future.thenApplyAsync(
+                a -> metrics.time(name, () -> work.apply(a)), executor));
+    }
+
+    /**
+     * Add a stage with two inputs, started when both are ready.
+     *
+     * @param name name of the stage
+     * @param first stage whose result is the first input
+     * @param second stage whose result is the second input
+     * @param work computes the stage's result from the inputs
+     * @return the stage
+     */
+    public <A, B, T> Stage<T> add(String name, Stage<A> first, Stage<B> second,
+            BiFunction<? super A, ? super B, ? extends T> work) {
+        return new Stage<T>(name, first.future.thenCombineAsync(second.future,
+                (a, b) -> metrics.time(name, () -> work.apply(a, b)), executor));
+    }
+
+    /**
+     * A stage of a StageGraph, and eventually its result.
+     *
+     * @param <T> type of the stage's result
+     */
+    public static final class Stage<T> {
+        private final String name;
+        private final CompletableFuture<T> future;
+
+        private Stage(String name, CompletableFuture<T> future) {
+            this.name = name;
+            this.future = future;
+        }
+
+        /**
+         * @return name of the stage
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return true iff the stage has finished, normally or not
+         */
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * Wait for the stage to finish.
+         *
+         * @return the stage's result
+         * @throws RuntimeException or Error thrown by the stage or by a stage
+         *         it depends on, unwrapped
+         */
+        public T join() {
+            try {
+                return future.join();
+            } catch (CompletionException ce) {
+                Throwable cause = ce.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw ce;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and caller-thread allocation of one pipeline stage.
+ *
+ * Latencies are counted in buckets of nanoseconds: exact below 8 ns, then 8
+ * buckets per power of two, so a reported percentile is the upper bound of
+ * its bucket, at most 12.5% above the true value (and never above the
+ * maximum). Recording takes constant time and no locks.
+ *
+ * A StageMetrics is thread-safe.
+ */
+public class StageMetrics implements StageMetricsMBean {
+
+    /* Sub-buckets per power of two, and its log. */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /* Enough buckets for any nonnegative long. */
+    static final int BUCKET_COUNT = bucket(Long.MAX_VALUE) + 1;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder allocatedBytes = new LongAdder();
+    private volatile boolean allocationMeasured = true;
+    /* Rep invariant:
+     *    buckets[b] == number of recorded latencies v with bucket(v) == b
+     *    count == sum of buckets, totalNanos and maxNanos their sum and max
+     *    allocatedBytes == sum of the recorded allocations, meaningful only
+     *      if allocationMeasured
+     * Thread safety argument:
+     *    every field is final and thread-safe, or volatile; readers may see
+     *    a run partly recorded, which only skews a snapshot slightly
+     */
+
+    /**
+     * Make empty metrics for a stage.
+     *
+     * @param name name of the stage
+     */
+    public StageMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record one run of the stage.
+     *
+     * @param nanos latency of the run, >= 0
+     * @param allocated bytes allocated by the thread that ran it, or -1 if
+     *                  unknown
+     */
+    public void record(long nanos, long allocated) {
+        buckets.incrementAndGet(bucket(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (allocated < 0) {
+            allocationMeasured = false;
+        } else {
+            allocatedBytes.add(allocated);
+        }
+    }
+
+    /*
+     * @return bucket of a latency of nanos >= 0 nanoseconds
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /*
+     * @return largest latency in a bucket
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * @param quantile fraction of runs, 0 <= quantile <= 1
+     * @return latency in nanoseconds that at least quantile of the runs did
+     *         not exceed, within the histogram's resolution; 0 if none
+     */
+    public long quantileNanos(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1");
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            snapshot[b] = buckets.get(b);
+            total += snapshot[b];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(b), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override public String getName() {
+        return name;
+    }
+
+    @Override public long getCount() {
+        return count.sum();
+    }
+
+    @Override public double getTotalMillis() {
+        return totalNanos.sum() / 1e6;
+    }
+
+    @Override public double getMeanMillis() {
+        long runs = count.sum();
+        return runs == 0 ? 0 : totalNanos.sum() / 1e6 / runs;
+    }
+
+    @Override public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override public double getP50Millis() {
+        return quantileNanos(0.5) / 1e6;
+    }
+
+    @Override public double getP90Millis() {
+        return quantileNanos(0.9) / 1e6;
+    }
+
+    @Override public double getP99Millis() {
+        return quantileNanos(0.99) / 1e6;
+    }
+
+    @Override public long getCallerThreadAllocatedBytes() {
+        return allocationMeasured ? allocatedBytes.sum() : -1;
+    }
+}
@@ -0,0 +1,43 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * JMX management interface of a StageMetrics: latency and allocation of one
+ * stage of the Main pipeline.
+ */
+public interface StageMetricsMBean {
+
+    /** @return name of the stage */
+    String getName();
+
+    /** @return number of completed runs of the stage */
+    long getCount();
+
+    /** @return total time spent in the stage, in milliseconds */
+    double getTotalMillis();
+
+    /** @return mean latency of a run, in milliseconds; 0 if none */
+    double getMeanMillis();
+
+    /** @return maximum latency of a run, in milliseconds; 0 if none */
+    double getMaxMillis();
+
+    /** @return median latency, in milliseconds, within the histogram's resolution */
+    double getP50Millis();
+
+    /** @return 90th percentile latency, in milliseconds, within the histogram's resolution */
+    double getP90Millis();
+
+    /** @return 99th percentile latency, in milliseconds, within the histogram's resolution */
+    double getP99Millis();
+
+    /**
+     * @return bytes allocated by the threads that ran the stage while they
+     *         ran it; work the stage hands to other threads, such as parallel
+     *         streams on the common pool, is not counted, so this is a lower
+     *         bound; -1 if the JVM cannot measure allocation
+     */
+    long getCallerThreadAllocatedBytes();
+}
@@ -0,0 +1,219 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable index of a corpus of tweets by timestamp, for answering many
+ * Filter.inTimespan queries over the same corpus. Timestamps are kept sorted
+ * with the position of each tweet in the corpus, so a query finds its range
+ * by binary search and touches only the tweets in the range.
+ *
+ * The index refers to the corpus it was built from, which must not be
+ * modified while the index is in use.
+ */
+public class TimeIndex {
+
+    private final int size;
+    private final long[] sortedSeconds;
+    private final int[] sortedNanos;
+    private final int[] positions;
+    private final IntFunction<Tweet> corpus;
+    /* Rep invariant:
+     *    sortedSeconds, sortedNanos and positions have size elements
+     *    (sortedSeconds[i], sortedNanos[i]) is nondecreasing in i
+     *    positions is a permutation of 0..size-1, and within a run of equal
+     *      timestamps positions is increasing
+     * Abstraction function:
+     *    represents the corpus of size tweets corpus.apply(0..size-1), where
+     *    the tweet at position positions[i] has timestamp
+     *    sortedSeconds[i] + sortedNanos[i] nanoseconds
+     */
+
+    private TimeIndex(int size, long[] seconds, int[] nanos, IntFunction<Tweet> corpus) {
+        this.size = size;
+        this.corpus = corpus;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        sortByTimestamp(order, new int[size], 0, size, seconds, nanos);
+
+        this.positions = order;
+        this.sortedSeconds = new long[size];
+        this.sortedNanos = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedSeconds[i] = seconds[order[i]];
+            sortedNanos[i] = nanos[order[i]];
+        }
+    }
+
+    /**
+     * Index a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids, not modified by this
+     *               method or while the index is in use
+     * @return an index over tweets
+     */
+    public static TimeIndex of(List<Tweet> tweets) {
+        int size = tweets.size();
+        long[] seconds = new long[size];
+        int[] nanos = new int[size];
+        for (int i = 0; i < size; i++) {
+            Instant timestamp = tweets.get(i).getTimestamp();
+            seconds[i] = timestamp.getEpochSecond();
+            nanos[i] = timestamp.getNano();
+        }
+        return new TimeIndex(size, seconds, nanos, tweets::get);
+    }
+
+    /**
+     * Index the tweets in a store.
+     *
+     * @param store store of tweets with distinct ids, not modified by this
+     *              method; tweets appended later are not indexed
+     * @return an index over the tweets currently in store
+     */
+    public static TimeIndex of(TweetStore store) {
+        return new TimeIndex(store.size(), store.epochSecondsColumn(), store.nanosColumn(), store::getTweet);
+    }
+
+    /**
+     * @return number of tweets in the indexed corpus
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     *
+     * @param timespan timespan
+     * @return all and only the tweets in the corpus that were sent during the
+     *         timespan, in the same order as in the corpus; the same as
+     *         Filter.inTimespan on the corpus.
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        int[] matches = positionsInTimespan(timespan);
+        List<Tweet> result = new ArrayList<>(matches.length);
+        for (int position : matches) {
+            result.add(corpus.apply(position));
+        }
+        return result;
+    }
+
+    /**
+     * Find the positions of tweets that were sent during a particular timespan.
+     *
+     * @param timespan timespan
+     * @return the positions in the corpus of all and only the tweets sent
+     *         during the timespan, in increasing order
+     */
+    public int[] positionsInTimespan(Timespan timespan) {
+        int from = firstAtOrAfter(timespan.getStart());
+        int to = firstAfter(timespan.getEnd());
+        int count = Math.max(0, to - from);
+        int[] matches = new int[count];
+
+        // a sort costs about count*log(count); marking a bitset and reading
+        // it back costs about size/64 word operations
+        if ((long) count * (32 - Integer.numberOfLeadingZeros(count)) <= size / 64) {
+            System.arraycopy(positions, from, matches, 0, count);
+            Arrays.sort(matches);
+        } else {
+            BitSet marked = new BitSet(size);
+            for (int i = from; i < to; i++) {
+                marked.set(positions[i]);
+            }
+            int next = 0;
+            for (int position = marked.nextSetBit(0); position >= 0; position = marked.nextSetBit(position + 1)) {
+                matches[next++] = position;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Count tweets that were sent during a particular timespan, without
+     * retrieving them.
+     *
+     * @param timespan timespan
+     * @return number of tweets in the corpus sent during the timespan
+     */
+    public int count(Timespan timespan) {
+        return Math.max(0, firstAfter(timespan.getEnd()) - firstAtOrAfter(timespan.getStart()));
+    }
+
+    /*
+     * @return least i such that sorted timestamp i >= instant, or size
+     */
+    private int firstAtOrAfter(Instant instant) {
+        return search(instant.getEpochSecond(), instant.getNano(), false);
+    }
+
+    /*
+     * @return least i such that sorted timestamp i > instant, or size
+     */
+    private int firstAfter(Instant instant) {
+        return search(instant.getEpochSecond(), instant.getNano(), true);
+    }
+
+    /*
+     * @return least i such that sorted timestamp i > (second, nano), or >= it
+     *         if !strictlyAfter; size if there is none
+     */
+    private int search(long second, int nano, boolean strictlyAfter) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(sortedSeconds[mid], sortedNanos[mid], second, nano);
+            if (comparison < 0 || (strictlyAfter && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(long second1, int nano1, long second2, int nano2) {
+        int comparison = Long.compare(second1, second2);
+        return comparison != 0 ? comparison : Integer.compare(nano1, nano2);
+    }
+
+    /*
+     * Stable merge sort of order[from..to) by the timestamps of the positions
+     * it holds, using scratch as temporary space.
+     */
+    private static void sortByTimestamp(int[] order, int[] scratch, int from, int to, long[] seconds, int[] nanos) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortByTimestamp(order, scratch, from, mid, seconds, nanos);
+        sortByTimestamp(order, scratch, mid, to, seconds, nanos);
+        if (compare(seconds[order[mid - 1]], nanos[order[mid - 1]], seconds[order[mid]], nanos[order[mid]]) <= 0) {
+            return; // already in order, common for corpora that arrive roughly sorted
+        }
+
+        System.arraycopy(order, from, scratch, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && compare(seconds[scratch[left]], nanos[scratch[left]],
+                    seconds[scratch[right]], nanos[scratch[right]]) <= 0)) {
+                order[i] = scratch[left++];
+            } else {
+                order[i] = scratch[right++];
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe, incrementally updated version of Extract.getTimespan for live
+ * ingestion. Any number of threads may add tweets concurrently while others
+ * read the current timespan; both are lock-free, and reading takes constant
+ * time regardless of how many tweets have been added. Accumulators for
+ * separate shards can be merged.
+ *
+ * Timestamps are kept as nanoseconds since the epoch in a long, so they must
+ * lie strictly between 1677-09-21T00:12:43.145224192Z and
+ * 2262-04-11T23:47:16.854775807Z.
+ */
+public class TimespanAccumulator {
+
+    private static final long EMPTY_MIN = Long.MAX_VALUE;
+    private static final long EMPTY_MAX = Long.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final AtomicLong minNanos = new AtomicLong(EMPTY_MIN);
+    private final AtomicLong maxNanos = new AtomicLong(EMPTY_MAX);
+    /* Rep invariant:
+     *    minNanos == EMPTY_MIN iff maxNanos == EMPTY_MAX, except transiently
+     *      while the first timestamp is being added
+     *    otherwise minNanos <= maxNanos
+     * Abstraction function:
+     *    represents the smallest interval [minNanos, maxNanos] (in epoch
+     *    nanoseconds) containing every timestamp added, or no interval if
+     *    minNanos == EMPTY_MIN
+     * Thread safety argument:
+     *    maxNanos only increases and minNanos only decreases, each by
+     *    compare-and-set; add() updates maxNanos before minNanos and
+     *    getTimespan() reads minNanos before maxNanos, so a reader that sees
+     *    a timestamp in minNanos also sees a maxNanos at least as large.
+     */
+
+    /**
+     * Make an accumulator that has seen no tweets.
+     */
+    public TimespanAccumulator() {
+    }
+
+    /**
+     * Include a tweet's timestamp.
+     *
+     * @param tweet tweet whose timestamp is in the supported range
+     */
+    public void add(Tweet tweet) {
+        add(tweet.getTimestamp());
+    }
+
+    /**
+     * Include the timestamps of a list of tweets.
+     *
+     * @param tweets tweets whose timestamps are in the supported range, not
+     *               modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        if (tweets.isEmpty()) {
+            return;
+        }
+        long min = EMPTY_MIN;
+        long max = EMPTY_MAX;
+        for (Tweet tweet : tweets) {
+            long nanos = toEpochNanos(tweet.getTimestamp());
+            min = Math.min(min, nanos);
+            max = Math.max(max, nanos);
+        }
+        include(min, max);
+    }
+
+    /**
+     * Include a timestamp.
+     *
+     * @param timestamp instant in the supported range
+     */
+    public void add(Instant timestamp) {
+        long nanos = toEpochNanos(timestamp);
+        include(nanos, nanos);
+    }
+
+    /**
+     * Include everything another accumulator has seen, for example to combine
+     * per-shard accumulators.
+     *
+     * @param other accumulator to merge into this one; not modified
+     */
+    public void merge(TimespanAccumulator other) {
+        long min = other.minNanos.get();
+        long max = other.maxNanos.get();
+        if (min != EMPTY_MIN && max != EMPTY_MAX) {
+            include(min, max);
+        }
+    }
+
+    /**
+     * @return true iff no timestamp has been included yet
+     */
+    public boolean isEmpty() {
+        return minNanos.get() == EMPTY_MIN;
+    }
+
+    /**
+     * Get the time period spanned by the tweets seen so far.
+     *
+     * @return a minimum-length time interval that contains every timestamp
+     *         included so far; if none has been, the same as
+     *         Extract.getTimespan of an empty list.
+     */
+    public Timespan getTimespan() {
+        long min = minNanos.get();
+        long max = maxNanos.get();
+        if (min == EMPTY_MIN) {
+            return Extract.getTimespan(Collections.<Tweet>emptyList());
+        }
+        return new Timespan(toInstant(min), toInstant(max));
+    }
+
+    private void include(long min, long max) {
+        long current = maxNanos.get();
+        while (max > current && !maxNanos.compareAndSet(current, max)) {
+            current = maxNanos.get();
+        }
+        current = minNanos.get();
+        while (min < current && !minNanos.compareAndSet(current, min)) {
+            current = minNanos.get();
+        }
+    }
+
+    private static long toEpochNanos(Instant timestamp) {
+        long nanos;
+        try {
+            nanos = Math.addExact(Math.multiplyExact(timestamp.getEpochSecond(), NANOS_PER_SECOND), timestamp.getNano());
+        } catch (ArithmeticException ae) {
+            throw new IllegalArgumentException("timestamp out of range: " + timestamp, ae);
+        }
+        if (nanos == EMPTY_MIN || nanos == EMPTY_MAX) {
+            throw new IllegalArgumentException("timestamp out of range: " + timestamp);
+        }
+        return nanos;
+    }
+
+    private static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+}
@@ -0,0 +1,102 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * Bounded-heap selection of the k best of a set of int ids, in O(n log k)
+ * time for n ids, used by the rankings over user ids in this package.
+ */
+class TopK {
+
+    /**
+     * A strict total order on ids, best first.
+     */
+    interface Order {
+        /**
+         * @return true iff id u ranks strictly before id v
+         */
+        boolean ranksBefore(int u, int v);
+    }
+
+    private TopK() {
+        // static methods only
+    }
+
+    /**
+     * @param n number of ids; the ids are 0..n-1
+     * @param k number of ids wanted, >= 0
+     * @param order ranking of the ids
+     * @return the min(k, n) best ids, best first
+     */
+    static int[] select(int n, int k, Order order) {
+        return select(null, n, k, order);
+    }
+
+    /**
+     * @param ids array holding the ids, or null for the ids 0..n-1
+     * @param n number of ids, taken from ids[0..n) if ids is not null
+     * @param k number of ids wanted, >= 0
+     * @param order ranking of the ids
+     * @return the min(k, n) best ids, best first
+     */
+    static int[] select(int[] ids, int n, int k, Order order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative");
+        }
+        // heap[0..size) is a heap with the lowest-ranked id at the root
+        int[] heap = new int[Math.min(k, n)];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            int id = ids == null ? i : ids[i];
+            if (size < heap.length) {
+                heap[size] = id;
+                siftUp(heap, size++, order);
+            } else if (size > 0 && order.ranksBefore(id, heap[0])) {
+                heap[0] = id;
+                siftDown(heap, size, order);
+            }
+        }
+
+        int[] top = new int[size];
+        while (size > 0) {
+            top[size - 1] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, order);
+        }
+        return top;
+    }
+
+    private static void siftUp(int[] heap, int i, Order order) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!order.ranksBefore(heap[parent], id)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = id;
+    }
+
+    private static void siftDown(int[] heap, int size, Order order) {
+        if (size == 0) {
+            return;
+        }
+        int id = heap[0];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && order.ranksBefore(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!order.ranksBefore(id, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = id;
+    }
+}
@@ -0,0 +1,259 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Streaming tracker of the most-mentioned users over a sliding time window,
+ * fed one tweet at a time, in bounded memory regardless of traffic.
+ *
+ * The window is divided into time buckets. Each bucket counts mentions in a
+ * Count-Min Sketch, and the window's counts are the sum of its buckets'
+ * sketches, so when a bucket falls out of the window its sketch is simply
+ * subtracted. A bounded set of candidate heavy hitters is kept ordered by
+ * estimated count, so a top-k query reads off its first k entries.
+ *
+ * Counts are numbers of tweets mentioning a user (a tweet mentioning a user
+ * twice counts once). Estimates never undercount, and with probability at
+ * least 1 - e^-depth overcount by at most (e / width) times the number of
+ * mentions in the window.
+ *
+ * A TrendingMentions is thread-safe.
+ */
+public class TrendingMentions {
+
+    private static final Comparator<Candidate> BY_COUNT_DESCENDING = new Comparator<Candidate>() {
+        @Override public int compare(Candidate c1, Candidate c2) {
+            int comparison = Long.compare(c2.count, c1.count);
+            return comparison != 0 ? comparison : c1.username.compareTo(c2.username);
+        }
+    };
+
+    private final long bucketSeconds;
+    private final int bucketCount;
+    private final int depth;
+    private final int widthMask;
+    private final int capacity;
+
+    private final int[][] bucketSketches;
+    private final long[] windowSketch;
+    private long newestBucket = Long.MIN_VALUE;
+
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final TreeSet<Candidate> ranking = new TreeSet<>(BY_COUNT_DESCENDING);
+    /* Rep invariant:
+     *    bucketSketches[b] counts the mentions in the tweets whose time
+     *      bucket t has floorMod(t, bucketCount) == b and
+     *      newestBucket - bucketCount < t <= newestBucket
+     *    windowSketch[j] == sum over b of bucketSketches[b][j]
+     *    candidates.size() <= capacity, ranking holds exactly the values of
+     *      candidates, and each candidate's count is its windowSketch estimate
+     *      as of the last time it was updated
+     * Abstraction function:
+     *    represents the multiset of (user, tweet) mentions in the last
+     *    bucketCount buckets of bucketSeconds seconds each, up to and
+     *    including newestBucket
+     * Thread safety argument:
+     *    all state is confined to this object and accessed only in
+     *    synchronized methods
+     */
+
+    /**
+     * Make a tracker with default sketch sizes: 4 rows of 2048 counters per
+     * bucket and 1000 candidates.
+     *
+     * @param bucketSeconds length of one bucket in seconds, > 0
+     * @param bucketCount number of buckets in the window, > 0
+     */
+    public TrendingMentions(long bucketSeconds, int bucketCount) {
+        this(bucketSeconds, bucketCount, 4, 2048, 1000);
+    }
+
+    /**
+     * Make a tracker.
+     *
+     * @param bucketSeconds length of one bucket in seconds, > 0
+     * @param bucketCount number of buckets in the window, > 0
+     * @param depth number of hash rows in each Count-Min Sketch, 1 <= depth <= 16
+     * @param width counters per row, a power of two
+     * @param capacity maximum number of candidate users tracked, > 0; top-k
+     *                 queries are exact over the candidates for k <= capacity
+     */
+    public TrendingMentions(long bucketSeconds, int bucketCount, int depth, int width, int capacity) {
+        if (bucketSeconds <= 0 || bucketCount <= 0 || depth < 1 || depth > 16
+                || width <= 0 || Integer.bitCount(width) != 1 || capacity <= 0) {
+            throw new IllegalArgumentException("invalid window or sketch size");
+        }
+        this.bucketSeconds = bucketSeconds;
+        this.bucketCount = bucketCount;
+        this.depth = depth;
+        this.widthMask = width - 1;
+        this.capacity = capacity;
+        this.bucketSketches = new int[bucketCount][depth * width];
+        this.windowSketch = new long[depth * width];
+    }
+
+    /**
+     * Count the mentions in a tweet. Tweets older than the window are
+     * ignored; a newer tweet moves the window forward to end at its bucket.
+     *
+     * @param tweet tweet to count
+     */
+    public void add(Tweet tweet) {
+        // each tweet is seen once, so scan it directly, outside the lock
+        count(bucketOf(tweet.getTimestamp()), MentionScanner.scan(tweet.getText()));
+    }
+
+    private synchronized void count(long bucket, String[] mentions) {
+        advanceToBucket(bucket);
+        if (bucket <= newestBucket - bucketCount) {
+            return;
+        }
+
+        int[] sketch = bucketSketches[(int) Math.floorMod(bucket, (long) bucketCount)];
+        for (String username : mentions) {
+            long hash = HyperLogLog.hash(username);
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                int cell = cell(hash, row);
+                sketch[cell]++;
+                estimate = Math.min(estimate, ++windowSketch[cell]);
+            }
+            offer(username, estimate);
+        }
+    }
+
+    /**
+     * Move the window forward so that it ends at the bucket containing now,
+     * expiring older buckets. Has no effect if the window already ends later.
+     *
+     * @param now current time
+     */
+    public synchronized void advance(Instant now) {
+        advanceToBucket(bucketOf(now));
+    }
+
+    /**
+     * Get the most-mentioned users in the window.
+     *
+     * @param k number of users wanted, >= 0
+     * @return up to k distinct usernames, lowercased, in descending order of
+     *         estimated mention count, ties broken alphabetically
+     */
+    public synchronized List<String> topK(int k) {
+        List<String> top = new ArrayList<>(Math.min(k, ranking.size()));
+        Iterator<Candidate> iterator = ranking.iterator();
+        while (top.size() < k && iterator.hasNext()) {
+            top.add(iterator.next().username);
+        }
+        return top;
+    }
+
+    /**
+     * @param username Twitter username
+     * @return estimated number of tweets in the window mentioning username,
+     *         never less than the true number
+     */
+    public synchronized long estimate(String username) {
+        return windowEstimate(HyperLogLog.hash(username.toLowerCase(Locale.ROOT)));
+    }
+
+    /*
+     * Make username a candidate with the given count if it ranks among the
+     * top capacity candidates.
+     */
+    private void offer(String username, long count) {
+        Candidate candidate = candidates.get(username);
+        if (candidate != null) {
+            ranking.remove(candidate);
+            candidate.count = count;
+            ranking.add(candidate);
+            return;
+        }
+        if (candidates.size() == capacity) {
+            Candidate weakest = ranking.last();
+            if (count <= weakest.count) {
+                return;
+            }
+            ranking.pollLast();
+            candidates.remove(weakest.username);
+        }
+        candidate = new Candidate(username, count);
+        candidates.put(username, candidate);
+        ranking.add(candidate);
+    }
+
+    /*
+     * Expire buckets so that the window ends at bucket, then re-estimate the
+     * candidates, whose counts can only have dropped.
+     */
+    private void advanceToBucket(long bucket) {
+        if (bucket <= newestBucket) {
+            return;
+        }
+        long first = (newestBucket == Long.MIN_VALUE) ? bucket : Math.max(newestBucket + 1, bucket - bucketCount + 1);
+        for (long expired = first; expired <= bucket; expired++) {
+            int[] sketch = bucketSketches[(int) Math.floorMod(expired, (long) bucketCount)];
+            for (int cell = 0; cell < sketch.length; cell++) {
+                windowSketch[cell] -= sketch[cell];
+            }
+            Arrays.fill(sketch, 0);
+        }
+        newestBucket = bucket;
+
+        ranking.clear();
+        Iterator<Candidate> iterator = candidates.values().iterator();
+        while (iterator.hasNext()) {
+            Candidate candidate = iterator.next();
+            candidate.count = windowEstimate(HyperLogLog.hash(candidate.username));
+            if (candidate.count == 0) {
+                iterator.remove();
+            } else {
+                ranking.add(candidate);
+            }
+        }
+    }
+
+    private long windowEstimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, windowSketch[cell(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /*
+     * Counter for hash in the given row, by double hashing on the two halves
+     * of the 64-bit hash.
+     */
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+    }
+
+    private long bucketOf(Instant timestamp) {
+        return Math.floorDiv(timestamp.getEpochSecond(), bucketSeconds);
+    }
+
+    private static final class Candidate {
+        private final String username;
+        private long count;
+
+        Candidate(String username, long count) {
+            this.username = username;
+            this.count = count;
+        }
+    }
+}
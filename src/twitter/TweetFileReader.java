@@ -0,0 +1,422 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.json.JsonException;
+
+/**
+ * Read tweets from local files. Files are memory-mapped, cut into chunks of a
+ * few megabytes at tweet boundaries, and the chunks are parsed in parallel on
+ * a fork-join pool. The returned lists are in input order.
+ *
+ * Two file formats are accepted, distinguished by their first non-blank byte:
+ *   - a JSON array of tweet objects ('['), as served by Main.SAMPLE_SERVER;
+ *   - newline-delimited JSON, one whole tweet object per line ('{'). Blank
+ *     lines are ignored; a tweet object spread over several lines, as in a
+ *     pretty-printed file holding a single object, is not accepted.
+ * Tweet objects have the fields understood by TweetStreamReader. Files must
+ * be encoded in UTF-8.
+ */
+public class TweetFileReader {
+
+    /** Target size in bytes of the chunks parsed as one task. */
+    static final int CHUNK_SIZE = 4 << 20;
+
+    /* Size of the windows mapped while scanning a JSON array for boundaries. */
+    private static final int SCAN_WINDOW_SIZE = 64 << 20;
+
+    private static final byte[] ARRAY_START = { '[' };
+    private static final byte[] ARRAY_END = { ']' };
+
+    private TweetFileReader() {
+        // static methods only
+    }
+
+    /**
+     * Get a list of tweets from a file, parsing on the common fork-join pool.
+     *
+     * @param file JSON array or newline-delimited JSON file of tweets
+     * @return the tweets in the file, in order.
+     * @throws IOException if the file cannot be read
+     * @throws javax.json.JsonException if the file is not well-formed
+     */
+    public static List<Tweet> readTweetsFromFile(Path file) throws IOException {
+        return readTweetsFromFile(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get a list of tweets from a file.
+     *
+     * @param file JSON array or newline-delimited JSON file of tweets
+     * @param pool pool to parse chunks of the file on
+     * @return the tweets in the file, in order.
+     * @throws IOException if the file cannot be read
+     * @throws javax.json.JsonException if the file is not well-formed
+     */
+    public static List<Tweet> readTweetsFromFile(Path file, ForkJoinPool pool) throws IOException {
+        return readTweets(Collections.singletonList(file), pool, CHUNK_SIZE);
+    }
+
+    /**
+     * Get a list of tweets from every .json, .jsonl and .ndjson file in a
+     * directory (not including subdirectories), parsing on the common
+     * fork-join pool.
+     *
+     * @param directory directory of tweet files
+     * @return the tweets in the files, files taken in order of file name and
+     *         tweets in order within each file.
+     * @throws IOException if the directory or one of its files cannot be read
+     * @throws javax.json.JsonException if a file is not well-formed
+     */
+    public static List<Tweet> readTweetsFromDirectory(Path directory) throws IOException {
+        return readTweetsFromDirectory(directory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get a list of tweets from every .json, .jsonl and .ndjson file in a
+     * directory (not including subdirectories).
+     *
+     * @param directory directory of tweet files
+     * @param pool pool to parse chunks of the files on
+     * @return the tweets in the files, files taken in order of file name and
+     *         tweets in order within each file.
+     * @throws IOException if the directory or one of its files cannot be read
+     * @throws javax.json.JsonException if a file is not well-formed
+     */
+    public static List<Tweet> readTweetsFromDirectory(Path directory, ForkJoinPool pool) throws IOException {
+        return readTweets(listTweetFiles(directory), pool, CHUNK_SIZE);
+    }
+
+    /*
+     * @return the tweet files directly inside directory, sorted by file name.
+     */
+    static List<Path> listTweetFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.{json,jsonl,ndjson}")) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /*
+     * Split every file into chunks, parse all chunks on pool, and concatenate
+     * the results in file and chunk order.
+     */
+    static List<Tweet> readTweets(List<Path> files, ForkJoinPool pool, int chunkSize) throws IOException {
+        List<ForkJoinTask<List<Tweet>>> tasks = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                for (Chunk chunk : split(file, chunkSize)) {
+                    tasks.add(pool.submit(chunk::parse));
+                }
+            }
+
+            List<Tweet> tweets = new ArrayList<>();
+            for (ForkJoinTask<List<Tweet>> task : tasks) {
+                tweets.addAll(task.join());
+            }
+            return tweets;
+        } catch (IOException | RuntimeException | Error e) {
+            for (ForkJoinTask<List<Tweet>> task : tasks) {
+                task.cancel(false);
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * Memory-map a file as a list of chunks, each holding whole tweets.
+     */
+    private static List<Chunk> split(Path file, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = skipWhitespace(channel, 0, size);
+            if (start == size) {
+                return Collections.emptyList();
+            }
+            ByteBuffer first = channel.map(FileChannel.MapMode.READ_ONLY, start, 1);
+            if (first.get(0) == '[') {
+                return splitArray(channel, start, size, chunkSize);
+            }
+            return splitLines(channel, start, size, chunkSize);
+        }
+    }
+
+    /*
+     * @return position of the first non-whitespace byte at or after from, or
+     *         size if there is none.
+     */
+    private static long skipWhitespace(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(SCAN_WINDOW_SIZE, size - position);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (!isWhitespace(window.get(i))) {
+                    return position + i;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    /*
+     * Cut a newline-delimited file into chunks of about chunkSize bytes, each
+     * ending just after a newline or at the end of the file.
+     */
+    private static List<Chunk> splitLines(FileChannel channel, long start, long size, int chunkSize)
+            throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long position = start;
+        while (position < size) {
+            int length = (int) Math.min(chunkSize, size - position);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            long end = position + length;
+            if (end < size) {
+                int lastNewline = length - 1;
+                while (lastNewline >= 0 && window.get(lastNewline) != '\n') {
+                    lastNewline--;
+                }
+                end = (lastNewline >= 0)
+                        ? position + lastNewline + 1
+                        : nextLineStart(channel, end, size);
+            }
+            ByteBuffer bytes = (end - position == length)
+                    ? window
+                    : channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+            chunks.add(new Chunk(bytes, false));
+            position = end;
+        }
+        return chunks;
+    }
+
+    /*
+     * @return position just after the first newline at or after from, or
+     *         size if there is none; used for lines longer than a chunk.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(SCAN_WINDOW_SIZE, size - position);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    /*
+     * Cut a JSON array into chunks of about chunkSize bytes, each running from
+     * the start of one top-level object to the end of a later one. Only the
+     * structural bytes are examined: braces, brackets, quotes and escapes,
+     * which never occur inside multi-byte UTF-8 sequences. Between elements
+     * the array itself is checked: its elements must be objects separated by
+     * single commas, and it must be closed by ']' followed by nothing but
+     * whitespace. The objects are checked when their chunks are parsed.
+     *
+     * @throws JsonException if the array is not well-formed
+     */
+    private static List<Chunk> splitArray(FileChannel channel, long start, long size, int chunkSize)
+            throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        boolean closed = false;
+        boolean expectElement = true;
+        boolean empty = true;
+        long chunkStart = -1;
+        long objectEnd = -1;
+
+        long position = start + 1; // just after the opening '['
+        while (position < size) {
+            int length = (int) Math.min(SCAN_WINDOW_SIZE, size - position);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (closed) {
+                    if (!isWhitespace(b)) {
+                        throw malformedArray("data after the closing ']'", position + i);
+                    }
+                } else if (depth == 1) {
+                    if (isWhitespace(b)) {
+                        continue;
+                    } else if (b == '{' && expectElement) {
+                        depth = 2;
+                        if (chunkStart < 0) {
+                            chunkStart = position + i;
+                        }
+                    } else if (b == ',' && !expectElement) {
+                        expectElement = true;
+                    } else if (b == ']' && (!expectElement || empty)) {
+                        depth = 0;
+                        closed = true;
+                    } else {
+                        throw malformedArray(expectElement ? "expected a tweet object" : "expected ',' or ']'",
+                                position + i);
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 1) {
+                        objectEnd = position + i + 1;
+                        expectElement = false;
+                        empty = false;
+                        if (objectEnd - chunkStart >= chunkSize) {
+                            chunks.add(mapArrayChunk(channel, chunkStart, objectEnd));
+                            chunkStart = -1;
+                        }
+                    }
+                }
+            }
+            position += length;
+        }
+        if (!closed) {
+            throw malformedArray("missing the closing ']'", size);
+        }
+        if (chunkStart >= 0 && objectEnd > chunkStart) {
+            chunks.add(mapArrayChunk(channel, chunkStart, objectEnd));
+        }
+        return chunks;
+    }
+
+    private static JsonException malformedArray(String problem, long position) {
+        return new JsonException("malformed JSON array: " + problem + " at byte " + position);
+    }
+
+    private static Chunk mapArrayChunk(FileChannel channel, long start, long end) throws IOException {
+        return new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), true);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /*
+     * A run of whole tweets in a mapped file: either consecutive elements of a
+     * JSON array (without the enclosing brackets), or complete lines of a
+     * newline-delimited file.
+     */
+    private static final class Chunk {
+        private final ByteBuffer bytes;
+        private final boolean arrayElements;
+
+        Chunk(ByteBuffer bytes, boolean arrayElements) {
+            this.bytes = bytes;
+            this.arrayElements = arrayElements;
+        }
+
+        /*
+         * @return the tweets in this chunk, in order.
+         */
+        List<Tweet> parse() {
+            if (arrayElements) {
+                InputStream array = new SequenceInputStream(new ByteArrayInputStream(ARRAY_START),
+                        new SequenceInputStream(new ByteBufferInputStream(bytes.duplicate()),
+                                new ByteArrayInputStream(ARRAY_END)));
+                List<Tweet> tweets = new ArrayList<>();
+                try (TweetStreamReader reader = new TweetStreamReader(array)) {
+                    reader.forEachRemaining(tweets::add);
+                }
+                return tweets;
+            }
+
+            List<Tweet> tweets = new ArrayList<>();
+            int limit = bytes.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && bytes.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                if (!isBlank(lineStart, lineEnd)) {
+                    ByteBuffer line = bytes.duplicate();
+                    line.limit(lineEnd).position(lineStart);
+                    try (TweetStreamReader reader = new TweetStreamReader(new ByteBufferInputStream(line))) {
+                        reader.forEachRemaining(tweets::add);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return tweets;
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (!isWhitespace(bytes.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /*
+     * InputStream over the remaining bytes of a ByteBuffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only view of a tweet snapshot written by TweetSnapshotWriter. The file
+ * is memory-mapped when opened, so opening costs only the mapping; columns
+ * are read straight from the mapping and Tweet objects are created only when
+ * asked for.
+ *
+ * A TweetSnapshotReader is safe to share between threads. Close it when done
+ * to release the file.
+ */
+public class TweetSnapshotReader implements Closeable {
+
+    /* TEXT_BYTES is mapped in segments of this size, each extended by
+     * SEGMENT_OVERLAP bytes so that texts crossing into the next segment can
+     * usually still be read from one mapping. */
+    private static final int SEGMENT_SIZE = 1 << 30;
+    private static final int SEGMENT_OVERLAP = 4096;
+
+    private final int size;
+    private final LongBuffer ids;
+    private final LongBuffer epochSeconds;
+    private final IntBuffer nanos;
+    private final IntBuffer authorCodes;
+    private final String[] authors;
+    private final LongBuffer textOffsets;
+    private final ByteBuffer[] textSegments;
+    private final FileChannel textChannel;
+    private final long textStart;
+    /* Rep invariant:
+     *    ids, epochSeconds, nanos, authorCodes have size elements
+     *    textOffsets has size+1 nondecreasing elements
+     *    0 <= authorCodes[i] < authors.length
+     * Abstraction function:
+     *    represents the sequence of tweets whose i-th element has id ids[i],
+     *    author authors[authorCodes[i]], timestamp epochSeconds[i] + nanos[i],
+     *    and text the UTF-8 bytes textOffsets[i]..textOffsets[i+1] of the
+     *    TEXT_BYTES section
+     */
+
+    private TweetSnapshotReader(FileChannel channel) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(channel.size(), TweetSnapshotWriter.HEADER_SIZE));
+        if (header.limit() < TweetSnapshotWriter.HEADER_SIZE || header.getInt() != TweetSnapshotWriter.MAGIC) {
+            throw new IOException("not a tweet snapshot");
+        }
+        int version = header.getInt();
+        if (version != TweetSnapshotWriter.VERSION) {
+            throw new IOException("unsupported tweet snapshot version " + version);
+        }
+        this.size = header.getInt();
+        int authorCount = header.getInt();
+        long[] offsets = new long[TweetSnapshotWriter.SECTION_COUNT];
+        long[] lengths = new long[TweetSnapshotWriter.SECTION_COUNT];
+        for (int section = 0; section < TweetSnapshotWriter.SECTION_COUNT; section++) {
+            offsets[section] = header.getLong();
+            lengths[section] = header.getLong();
+            if (offsets[section] < 0 || lengths[section] < 0 || offsets[section] + lengths[section] > channel.size()) {
+                throw new IOException("tweet snapshot is truncated");
+            }
+        }
+
+        this.ids = map(channel, offsets, lengths, TweetSnapshotWriter.IDS).asLongBuffer();
+        this.epochSeconds = map(channel, offsets, lengths, TweetSnapshotWriter.EPOCH_SECONDS).asLongBuffer();
+        this.nanos = map(channel, offsets, lengths, TweetSnapshotWriter.NANOS).asIntBuffer();
+        this.authorCodes = map(channel, offsets, lengths, TweetSnapshotWriter.AUTHOR_CODES).asIntBuffer();
+        this.textOffsets = map(channel, offsets, lengths, TweetSnapshotWriter.TEXT_OFFSETS).asLongBuffer();
+        if (ids.limit() != size || epochSeconds.limit() != size || nanos.limit() != size
+                || authorCodes.limit() != size || textOffsets.limit() != size + 1) {
+            throw new IOException("tweet snapshot sections do not match tweet count " + size);
+        }
+
+        IntBuffer authorOffsets = map(channel, offsets, lengths, TweetSnapshotWriter.AUTHOR_OFFSETS).asIntBuffer();
+        ByteBuffer authorBytes = map(channel, offsets, lengths, TweetSnapshotWriter.AUTHOR_BYTES);
+        this.authors = new String[authorCount];
+        for (int code = 0; code < authorCount; code++) {
+            authors[code] = decode(authorBytes, authorOffsets.get(code), authorOffsets.get(code + 1));
+        }
+
+        this.textChannel = channel;
+        this.textStart = offsets[TweetSnapshotWriter.TEXT_BYTES];
+        long textLength = lengths[TweetSnapshotWriter.TEXT_BYTES];
+        this.textSegments = new ByteBuffer[(int) ((textLength + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+        for (int segment = 0; segment < textSegments.length; segment++) {
+            long start = (long) segment * SEGMENT_SIZE;
+            long length = Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, textLength - start);
+            textSegments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, textStart + start, length);
+        }
+    }
+
+    /**
+     * Open a snapshot file.
+     *
+     * @param file snapshot written by TweetSnapshotWriter
+     * @return a reader over the tweets in the file
+     * @throws IOException if the file cannot be read or is not a snapshot
+     *                     of a supported version
+     */
+    public static TweetSnapshotReader open(Path file) throws IOException {
+        // the mappings stay valid after the channel is closed, except for
+        // texts longer than SEGMENT_OVERLAP that cross a segment boundary,
+        // which are read from the channel; keep it open for those.
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new TweetSnapshotReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long[] offsets, long[] lengths, int section)
+            throws IOException {
+        if (lengths[section] > Integer.MAX_VALUE) {
+            throw new IOException("tweet snapshot section " + section + " is too large to map");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offsets[section], lengths[section]);
+    }
+
+    /**
+     * Release the file. Columns already mapped stay readable, but texts that
+     * cross a mapping boundary can no longer be read.
+     */
+    @Override public void close() throws IOException {
+        textChannel.close();
+    }
+
+    /**
+     * @return number of tweets in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return id of the index-th tweet
+     */
+    public long getId(int index) {
+        return ids.get(index);
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return timestamp of the index-th tweet, in seconds since the epoch
+     */
+    public long getEpochSecond(int index) {
+        return epochSeconds.get(index);
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return timestamp of the index-th tweet
+     */
+    public Instant getTimestamp(int index) {
+        return Instant.ofEpochSecond(epochSeconds.get(index), nanos.get(index));
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return author of the index-th tweet, shared between tweets by the
+     *         same author
+     */
+    public String getAuthor(int index) {
+        return authors[authorCodes.get(index)];
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return text of the index-th tweet, decoded on each call
+     */
+    public String getText(int index) {
+        long start = textOffsets.get(index);
+        long end = textOffsets.get(index + 1);
+        if (start == end) {
+            // may start at the end of the text section, past the last segment
+            return "";
+        }
+        int segment = (int) (start / SEGMENT_SIZE);
+        long segmentStart = (long) segment * SEGMENT_SIZE;
+        ByteBuffer bytes = textSegments[segment];
+        if (end - segmentStart <= bytes.limit()) {
+            return decode(bytes, (int) (start - segmentStart), (int) (end - segmentStart));
+        }
+        ByteBuffer text = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (text.hasRemaining()) {
+                if (textChannel.read(text, textStart + start + text.position()) < 0) {
+                    throw new IllegalStateException("tweet snapshot is truncated");
+                }
+            }
+        } catch (IOException ioe) {
+            throw new IllegalStateException("cannot read tweet snapshot", ioe);
+        }
+        return new String(text.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return a new Tweet holding the index-th tweet
+     */
+    public Tweet getTweet(int index) {
+        return new Tweet(getId(index), getAuthor(index), getText(index), getTimestamp(index));
+    }
+
+    /**
+     * @return an unmodifiable list view of the tweets in the snapshot; each
+     *         get() creates the Tweet afresh.
+     */
+    public List<Tweet> asList() {
+        return new TweetList();
+    }
+
+    private static String decode(ByteBuffer bytes, int start, int end) {
+        ByteBuffer range = bytes.duplicate();
+        range.limit(end).position(start);
+        return StandardCharsets.UTF_8.decode(range).toString();
+    }
+
+    private class TweetList extends AbstractList<Tweet> implements RandomAccess {
+        @Override public Tweet get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            return getTweet(index);
+        }
+
+        @Override public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write a list of tweets as a binary snapshot, which TweetSnapshotReader can
+ * reopen by memory mapping instead of parsing JSON.
+ *
+ * A snapshot file is, with all numbers big-endian:
+ *
+ *   header   int magic, int version, int tweetCount, int authorCount,
+ *            then for each of the SECTION_COUNT sections below a long
+ *            file offset and a long length in bytes
+ *   sections, each starting at a multiple of 8 bytes:
+ *     IDS             long[tweetCount]   tweet ids
+ *     EPOCH_SECONDS   long[tweetCount]   timestamp seconds since the epoch
+ *     NANOS           int[tweetCount]    timestamp nanosecond adjustment
+ *     AUTHOR_CODES    int[tweetCount]    index of each tweet's author
+ *     AUTHOR_OFFSETS  int[authorCount+1] start of each author in AUTHOR_BYTES
+ *     AUTHOR_BYTES    UTF-8 author names, each distinct name stored once
+ *     TEXT_OFFSETS    long[tweetCount+1] start of each text in TEXT_BYTES
+ *     TEXT_BYTES      UTF-8 tweet texts
+ *
+ * Author names are deduplicated exactly, so their case is preserved.
+ */
+public class TweetSnapshotWriter {
+
+    /** First four bytes of every snapshot file, "TWSN". */
+    public static final int MAGIC = 0x5457534E;
+
+    /** Format version written by this class. */
+    public static final int VERSION = 1;
+
+    static final int IDS = 0;
+    static final int EPOCH_SECONDS = 1;
+    static final int NANOS = 2;
+    static final int AUTHOR_CODES = 3;
+    static final int AUTHOR_OFFSETS = 4;
+    static final int AUTHOR_BYTES = 5;
+    static final int TEXT_OFFSETS = 6;
+    static final int TEXT_BYTES = 7;
+    static final int SECTION_COUNT = 8;
+
+    static final int HEADER_SIZE = SectionWriter.headerSize(SECTION_COUNT);
+
+    private final SectionWriter out;
+
+    private TweetSnapshotWriter(FileChannel channel) {
+        this.out = new SectionWriter(channel, SECTION_COUNT);
+    }
+
+    /**
+     * Write tweets to a snapshot file, replacing the file if it exists.
+     *
+     * @param tweets tweets to write, not modified by this method
+     * @param file snapshot file to create
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(List<Tweet> tweets, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            new TweetSnapshotWriter(channel).writeSnapshot(tweets);
+        }
+    }
+
+    private void writeSnapshot(List<Tweet> tweets) throws IOException {
+        Map<String, Integer> authorCodes = new HashMap<>();
+        List<String> authors = new ArrayList<>();
+        int[] codes = new int[tweets.size()];
+        for (int i = 0; i < codes.length; i++) {
+            String author = tweets.get(i).getAuthor();
+            Integer code = authorCodes.get(author);
+            if (code == null) {
+                code = authors.size();
+                authorCodes.put(author, code);
+                authors.add(author);
+            }
+            codes[i] = code;
+        }
+
+        out.beginSection(IDS);
+        for (Tweet tweet : tweets) {
+            out.putLong(tweet.getId());
+        }
+        out.endSection(IDS);
+
+        out.beginSection(EPOCH_SECONDS);
+        for (Tweet tweet : tweets) {
+            out.putLong(tweet.getTimestamp().getEpochSecond());
+        }
+        out.endSection(EPOCH_SECONDS);
+
+        out.beginSection(NANOS);
+        for (Tweet tweet : tweets) {
+            out.putInt(tweet.getTimestamp().getNano());
+        }
+        out.endSection(NANOS);
+
+        out.beginSection(AUTHOR_CODES);
+        for (int code : codes) {
+            out.putInt(code);
+        }
+        out.endSection(AUTHOR_CODES);
+
+        List<byte[]> authorBytes = new ArrayList<>(authors.size());
+        int authorOffset = 0;
+        out.beginSection(AUTHOR_OFFSETS);
+        for (String author : authors) {
+            byte[] bytes = author.getBytes(StandardCharsets.UTF_8);
+            authorBytes.add(bytes);
+            out.putInt(authorOffset);
+            authorOffset += bytes.length;
+        }
+        out.putInt(authorOffset);
+        out.endSection(AUTHOR_OFFSETS);
+
+        out.beginSection(AUTHOR_BYTES);
+        for (byte[] bytes : authorBytes) {
+            out.putBytes(bytes);
+        }
+        out.endSection(AUTHOR_BYTES);
+
+        // texts are encoded twice rather than held in memory: once for the
+        // offsets and once for the bytes
+        long textOffset = 0;
+        out.beginSection(TEXT_OFFSETS);
+        for (Tweet tweet : tweets) {
+            out.putLong(textOffset);
+            textOffset += tweet.getText().getBytes(StandardCharsets.UTF_8).length;
+        }
+        out.putLong(textOffset);
+        out.endSection(TEXT_OFFSETS);
+
+        out.beginSection(TEXT_BYTES);
+        for (Tweet tweet : tweets) {
+            out.putBytes(tweet.getText().getBytes(StandardCharsets.UTF_8));
+        }
+        out.endSection(TEXT_BYTES);
+
+        out.writeHeader(MAGIC, VERSION, tweets.size(), authors.size());
+    }
+}
@@ -0,0 +1,302 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Mutable, append-only columnar store of tweets. Instead of one Tweet object
+ * per tweet, each field is kept in a primitive column indexed by position:
+ * ids and timestamps in long/int arrays, authors as int codes into a
+ * dictionary of distinct author names, and texts as UTF-8 in packed byte
+ * pages. Tweet objects are created only when asked for.
+ *
+ * Filter and Extract have overloads that scan a TweetStore's columns
+ * directly.
+ *
+ * A TweetStore is not thread-safe.
+ */
+public class TweetStore {
+
+    /* Texts are packed into pages of this many bytes; a text never spans two
+     * pages, and a text longer than a page gets a page of its own. */
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private int[] nanos = new int[INITIAL_CAPACITY];
+    private int[] authorCodes = new int[INITIAL_CAPACITY];
+    private long[] textAddresses = new long[INITIAL_CAPACITY];
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+
+    private final List<String> authors = new ArrayList<>();
+    private final Map<String, Integer> authorIndex = new HashMap<>();
+
+    private final List<byte[]> textPages = new ArrayList<>();
+    private int pageFill = PAGE_SIZE;
+    /* Rep invariant:
+     *    size <= length of every column array
+     *    0 <= authorCodes[i] < authors.size() for i < size
+     *    authorIndex maps authors.get(c) to c, and authors are distinct
+     *    text i is textLengths[i] bytes of textPages[textAddresses[i] / PAGE_SIZE]
+     *      starting at textAddresses[i] % PAGE_SIZE
+     * Abstraction function:
+     *    represents the sequence of tweets whose i-th element, for i < size,
+     *    has id ids[i], author authors[authorCodes[i]], timestamp
+     *    epochSeconds[i] + nanos[i] nanoseconds, and text i decoded as UTF-8
+     */
+
+    /**
+     * Make an empty store.
+     */
+    public TweetStore() {
+    }
+
+    /**
+     * Make a store holding a list of tweets.
+     *
+     * @param tweets tweets to copy, not modified by this method
+     * @return a store holding the tweets in the same order
+     */
+    public static TweetStore of(List<Tweet> tweets) {
+        TweetStore store = new TweetStore();
+        store.ensureCapacity(tweets.size());
+        for (Tweet tweet : tweets) {
+            store.add(tweet);
+        }
+        return store;
+    }
+
+    /**
+     * Append a tweet to the end of the store.
+     *
+     * @param tweet tweet to append
+     */
+    public void add(Tweet tweet) {
+        Instant timestamp = tweet.getTimestamp();
+        add(tweet.getId(), tweet.getAuthor(), tweet.getText(), timestamp.getEpochSecond(), timestamp.getNano());
+    }
+
+    /**
+     * Append a tweet to the end of the store.
+     *
+     * @param id unique identifier for the tweet
+     * @param author Twitter username who wrote the tweet
+     * @param text text of the tweet
+     * @param epochSecond seconds since the epoch when the tweet was sent
+     * @param nano nanosecond adjustment to epochSecond, 0 <= nano < 1e9
+     */
+    public void add(long id, String author, String text, long epochSecond, int nano) {
+        ensureCapacity(size + 1);
+        Integer code = authorIndex.get(author);
+        if (code == null) {
+            code = authors.size();
+            authors.add(author);
+            authorIndex.put(author, code);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        ids[size] = id;
+        epochSeconds[size] = epochSecond;
+        nanos[size] = nano;
+        authorCodes[size] = code;
+        textAddresses[size] = appendText(bytes);
+        textLengths[size] = bytes.length;
+        size++;
+    }
+
+    /*
+     * Copy bytes into the text pages.
+     *
+     * @return address of the copy
+     */
+    private long appendText(byte[] bytes) {
+        // an empty text still needs an address inside an existing page
+        if (textPages.isEmpty() || pageFill >= PAGE_SIZE || bytes.length > PAGE_SIZE - pageFill) {
+            textPages.add(new byte[Math.max(PAGE_SIZE, bytes.length)]);
+            pageFill = 0;
+        }
+        int page = textPages.size() - 1;
+        System.arraycopy(bytes, 0, textPages.get(page), pageFill, bytes.length);
+        long address = (long) page * PAGE_SIZE + pageFill;
+        pageFill += bytes.length;
+        return address;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, newCapacity);
+        nanos = Arrays.copyOf(nanos, newCapacity);
+        authorCodes = Arrays.copyOf(authorCodes, newCapacity);
+        textAddresses = Arrays.copyOf(textAddresses, newCapacity);
+        textLengths = Arrays.copyOf(textLengths, newCapacity);
+    }
+
+    /**
+     * @return number of tweets in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return id of the index-th tweet
+     */
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return timestamp of the index-th tweet, in whole seconds since the epoch
+     */
+    public long getEpochSecond(int index) {
+        checkIndex(index);
+        return epochSeconds[index];
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return nanosecond adjustment to the index-th tweet's epoch second
+     */
+    public int getNano(int index) {
+        checkIndex(index);
+        return nanos[index];
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return timestamp of the index-th tweet
+     */
+    public Instant getTimestamp(int index) {
+        checkIndex(index);
+        return Instant.ofEpochSecond(epochSeconds[index], nanos[index]);
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return dictionary code of the index-th tweet's author, in
+     *         [0, getAuthorCount())
+     */
+    public int getAuthorCode(int index) {
+        checkIndex(index);
+        return authorCodes[index];
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return author of the index-th tweet
+     */
+    public String getAuthor(int index) {
+        return authors.get(getAuthorCode(index));
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return text of the index-th tweet, decoded on each call
+     */
+    public String getText(int index) {
+        checkIndex(index);
+        long address = textAddresses[index];
+        byte[] page = textPages.get((int) (address / PAGE_SIZE));
+        return new String(page, (int) (address % PAGE_SIZE), textLengths[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index 0 <= index < size()
+     * @return a new Tweet holding the index-th tweet
+     */
+    public Tweet getTweet(int index) {
+        return new Tweet(getId(index), getAuthor(index), getText(index), getTimestamp(index));
+    }
+
+    /**
+     * @return number of distinct author names in the store, compared exactly
+     */
+    public int getAuthorCount() {
+        return authors.size();
+    }
+
+    /**
+     * @param code 0 <= code < getAuthorCount()
+     * @return the author name with dictionary code code
+     */
+    public String getAuthorName(int code) {
+        return authors.get(code);
+    }
+
+    /**
+     * @return a list view of the tweets in the store, which reflects later
+     *         appends and does not support modification; each get() creates
+     *         the Tweet afresh.
+     */
+    public List<Tweet> asList() {
+        return new TweetList();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    /*
+     * Column access for Filter and Extract; callers must stay below size().
+     */
+
+    long[] epochSecondsColumn() {
+        return epochSeconds;
+    }
+
+    int[] nanosColumn() {
+        return nanos;
+    }
+
+    int[] authorCodesColumn() {
+        return authorCodes;
+    }
+
+    /*
+     * The UTF-8 bytes of text index are textLength(index) bytes of
+     * textPage(index), starting at textOffset(index).
+     */
+
+    byte[] textPage(int index) {
+        return textPages.get((int) (textAddresses[index] / PAGE_SIZE));
+    }
+
+    int textOffset(int index) {
+        return (int) (textAddresses[index] % PAGE_SIZE);
+    }
+
+    int textLength(int index) {
+        return textLengths[index];
+    }
+
+    private class TweetList extends AbstractList<Tweet> implements RandomAccess {
+        @Override public Tweet get(int index) {
+            return getTweet(index);
+        }
+
+        @Override public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+
+/**
+ * Streaming alternative to TweetReader. Tweets are pulled one at a time from a
+ * JSON stream using javax.json.stream.JsonParser, so only the current tweet is
+ * ever held in memory; everything but the id, user.screen_name, text and
+ * created_at fields is skipped without being materialized.
+ *
+ * The input may be a JSON array of tweet objects (the format served by
+ * Main.SAMPLE_SERVER) or a single tweet object. The screen name may be given
+ * either as a literal "user.screen_name" key or as "screen_name" inside a
+ * nested "user" object.
+ *
+ * A TweetStreamReader is not thread-safe.
+ */
+public class TweetStreamReader implements Iterator<Tweet>, Closeable {
+
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+
+    private final JsonParser parser;
+    private Tweet next;
+    private boolean exhausted;
+    /* Rep invariant:
+     *    if exhausted, then next == null
+     * Abstraction function:
+     *    represents the sequence of tweets consisting of next (if non-null)
+     *    followed by the tweets remaining unread in parser
+     */
+
+    /**
+     * Make a reader over a JSON stream of tweets.
+     *
+     * @param reader source of JSON text; closed when this reader is closed.
+     */
+    public TweetStreamReader(Reader reader) {
+        this.parser = PARSER_FACTORY.createParser(reader);
+    }
+
+    /**
+     * Make a reader over a JSON byte stream of tweets.
+     *
+     * @param in source of JSON text, in UTF-8, UTF-16 or UTF-32 (detected from
+     *           the first bytes); closed when this reader is closed.
+     */
+    public TweetStreamReader(InputStream in) {
+        this.parser = PARSER_FACTORY.createParser(in);
+    }
+
+    /**
+     * Get a stream of tweets from a JSON source. Closing the stream closes
+     * the reader.
+     *
+     * @param reader source of JSON text
+     * @return a sequential, ordered stream of the tweets in the source.
+     */
+    public static Stream<Tweet> stream(Reader reader) {
+        TweetStreamReader tweets = new TweetStreamReader(reader);
+        Spliterator<Tweet> spliterator = Spliterators.spliteratorUnknownSize(tweets,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(tweets::close);
+    }
+
+    /**
+     * Get a stream of tweets from a web server, parsed as they arrive.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return a sequential, ordered stream of the tweets served; closing it
+     *         closes the connection.
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static Stream<Tweet> streamTweetsFromWeb(URL url) throws IOException {
+        return stream(new InputStreamReader(url.openStream()));
+    }
+
+    /**
+     * Pass every tweet in a JSON source to a callback, in order, then close
+     * the source.
+     *
+     * @param reader source of JSON text
+     * @param action called once per tweet
+     */
+    public static void forEachTweet(Reader reader, Consumer<? super Tweet> action) {
+        try (TweetStreamReader tweets = new TweetStreamReader(reader)) {
+            tweets.forEachRemaining(action);
+        }
+    }
+
+    /**
+     * Read a list of tweets from a JSON source without building the JSON tree,
+     * then close the source.
+     *
+     * @param reader source of JSON text
+     * @return the tweets in the source, in order.
+     */
+    public static List<Tweet> readTweets(Reader reader) {
+        List<Tweet> tweets = new ArrayList<>();
+        forEachTweet(reader, tweets::add);
+        return tweets;
+    }
+
+    @Override public boolean hasNext() {
+        if (next == null && !exhausted) {
+            next = readNextTweet();
+            exhausted = (next == null);
+        }
+        return next != null;
+    }
+
+    @Override public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet tweet = next;
+        next = null;
+        return tweet;
+    }
+
+    /**
+     * Release the underlying parser and reader.
+     */
+    @Override public void close() {
+        parser.close();
+    }
+
+    /*
+     * Advance to the start of the next tweet object and parse it.
+     *
+     * @return the next tweet, or null at the end of the input.
+     */
+    private Tweet readNextTweet() {
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            switch (event) {
+            case START_OBJECT:
+                return readTweetObject();
+            case START_ARRAY:
+            case END_ARRAY:
+                break;
+            default:
+                throw new JsonException("Unexpected event " + event + " between tweets");
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Parse the fields of one tweet object; the parser is just past its
+     * START_OBJECT and is left just past its END_OBJECT.
+     */
+    private Tweet readTweetObject() {
+        String id = null;
+        String screenName = null;
+        String text = null;
+        String createdAt = null;
+
+        Event event;
+        while ((event = parser.next()) != Event.END_OBJECT) {
+            String key = parser.getString();
+            event = parser.next();
+            switch (event) {
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                switch (key) {
+                case "id":
+                    id = parser.getString();
+                    break;
+                case "text":
+                    text = parser.getString();
+                    break;
+                case "created_at":
+                    createdAt = parser.getString();
+                    break;
+                case "user.screen_name":
+                    screenName = parser.getString();
+                    break;
+                default:
+                    break;
+                }
+                break;
+            case START_OBJECT:
+                if (key.equals("user")) {
+                    String nested = readScreenName();
+                    if (nested != null) {
+                        screenName = nested;
+                    }
+                } else {
+                    skipStructure();
+                }
+                break;
+            case START_ARRAY:
+                skipStructure();
+                break;
+            default:
+                break;
+            }
+        }
+
+        return createTweet(id, screenName, text, createdAt);
+    }
+
+    /*
+     * Find screen_name in a nested user object; the parser is just past its
+     * START_OBJECT and is left just past its END_OBJECT.
+     *
+     * @return the screen name, or null if the object has none.
+     */
+    private String readScreenName() {
+        String screenName = null;
+        Event event;
+        while ((event = parser.next()) != Event.END_OBJECT) {
+            String key = parser.getString();
+            event = parser.next();
+            if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+                skipStructure();
+            } else if (event == Event.VALUE_STRING && key.equals("screen_name")) {
+                screenName = parser.getString();
+            }
+        }
+        return screenName;
+    }
+
+    /*
+     * Skip an object or array; the parser is just past its START event and is
+     * left just past the matching END event.
+     */
+    private void skipStructure() {
+        int depth = 1;
+        while (depth > 0) {
+            switch (parser.next()) {
+            case START_OBJECT:
+            case START_ARRAY:
+                depth++;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                depth--;
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /*
+     * Construct a Tweet from the raw field values of a tweet object.
+     */
+    private static Tweet createTweet(String id, String screenName, String text, String createdAt) {
+        requireField(id, "id");
+        requireField(screenName, "user.screen_name");
+        requireField(text, "text");
+        requireField(createdAt, "created_at");
+        return new Tweet(Long.parseLong(id), screenName, text, CreatedAtParser.parse(createdAt));
+    }
+
+    private static void requireField(String value, String name) {
+        if (value == null) {
+            throw new JsonException("Tweet is missing field " + name);
+        }
+    }
+}
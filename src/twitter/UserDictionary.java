@@ -0,0 +1,322 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Growing dictionary from case-insensitive Twitter usernames to dense int
+ * ids 0, 1, 2, ..., in order of first intern, so that code working with
+ * many usernames can store and compare ints instead of strings.
+ *
+ * Usernames are stored once, case-folded, as bytes in a single array, and
+ * found through an open-addressing table of ids. Usernames are ASCII, so a
+ * lookup folds and hashes the characters of its argument in place, without
+ * allocating; any other username is folded with toLowerCase(Locale.ROOT)
+ * and stored as UTF-8.
+ *
+ * A UserDictionary is thread-safe: lookups take no lock and run
+ * concurrently with each other and with interning, which is serialized.
+ */
+public class UserDictionary {
+
+    private byte[] bytes = new byte[1024];
+    private int byteCount;
+    private int[] offsets = new int[65];
+    private int[] hashes = new int[64];
+    private int[] slots = new int[128];
+    private int size;
+
+    private volatile Table table = new Table(bytes, offsets, hashes, slots, 0);
+    /* Rep invariant:
+     *    offsets[0] == 0, offsets[0..size] nondecreasing, offsets[size] == byteCount
+     *    the usernames bytes[offsets[id]..offsets[id+1]) are distinct and
+     *      case-folded, and hashes[id] is the hash of each
+     *    slots.length is a power of two >= 2 * size; each id appears in
+     *      slots exactly once, as id + 1, reachable by linear probing from
+     *      its hash, and every other slot is 0
+     *    table holds the arrays and size as of the last completed intern
+     * Abstraction function:
+     *    represents the mapping from the username with bytes
+     *    bytes[offsets[id]..offsets[id+1]), case-insensitively, to id
+     * Thread safety argument:
+     *    the fields other than table are accessed only by intern, holding the
+     *    lock on this; it writes a username's bytes, offset and hash before
+     *    its slot and then publishes a new table through the volatile field,
+     *    so a reader of table sees every id < table.size completely.
+     *    Interning later only appends past table.size and fills empty slots,
+     *    or copies to new arrays, so a reader's probe either sees such a slot
+     *    as empty or sees an id >= table.size and skips it; slots are never
+     *    emptied, so every id < table.size stays reachable
+     */
+
+    /*
+     * Snapshot of the arrays through which lookups read ids 0..size-1.
+     */
+    private static final class Table {
+        private final byte[] bytes;
+        private final int[] offsets;
+        private final int[] hashes;
+        private final int[] slots;
+        private final int size;
+
+        Table(byte[] bytes, int[] offsets, int[] hashes, int[] slots, int size) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+            this.hashes = hashes;
+            this.slots = slots;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Make an empty dictionary.
+     */
+    public UserDictionary() {
+    }
+
+    /*
+     * @return a dictionary in which names[id] has id, for distinct
+     *         case-folded usernames names
+     */
+    static UserDictionary of(String[] names) {
+        UserDictionary dictionary = new UserDictionary();
+        for (String name : names) {
+            dictionary.intern(name);
+        }
+        return dictionary;
+    }
+
+    /**
+     * @return number of usernames in the dictionary; their ids are
+     *         0..size()-1
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return username's id, or -1 if it has not been interned
+     */
+    public int id(CharSequence username) {
+        return id(username, 0, username.length());
+    }
+
+    /**
+     * @param text text containing a Twitter username
+     * @param start index of the username's first character
+     * @param end index after the username's last character
+     * @return id of the username text[start..end), or -1 if it has not been
+     *         interned
+     */
+    public int id(CharSequence text, int start, int end) {
+        byte[] folded = isAscii(text, start, end) ? null : foldNonAscii(text, start, end);
+        int hash = folded == null ? hashAscii(text, start, end) : hashBytes(folded);
+        return find(table, text, start, end, folded, hash);
+    }
+
+    /**
+     * Get the id of a username, adding it if it is new.
+     *
+     * @param username Twitter username, in any case
+     * @return username's id
+     */
+    public int intern(CharSequence username) {
+        return intern(username, 0, username.length());
+    }
+
+    /**
+     * Get the id of a username, adding it if it is new.
+     *
+     * @param text text containing a Twitter username
+     * @param start index of the username's first character
+     * @param end index after the username's last character, > start
+     * @return id of the username text[start..end)
+     */
+    public int intern(CharSequence text, int start, int end) {
+        byte[] folded = isAscii(text, start, end) ? null : foldNonAscii(text, start, end);
+        int hash = folded == null ? hashAscii(text, start, end) : hashBytes(folded);
+        int id = find(table, text, start, end, folded, hash);
+        return id >= 0 ? id : add(text, start, end, folded, hash);
+    }
+
+    /**
+     * Intern the authors of a list of tweets, as a column of ids that
+     * id-space operations such as Filter.writtenBy(List, int[], int) compare
+     * instead of author strings.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @return ids such that ids[i] == intern(tweets.get(i).getAuthor())
+     */
+    public int[] internAuthors(List<Tweet> tweets) {
+        int[] ids = new int[tweets.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = intern(tweets.get(i).getAuthor());
+        }
+        return ids;
+    }
+
+    /**
+     * @param id id of an interned username, 0 <= id < size()
+     * @return the username, case-folded
+     */
+    public String name(int id) {
+        Table current = table;
+        if (id < 0 || id >= current.size) {
+            throw new IndexOutOfBoundsException("id " + id + ", size " + current.size);
+        }
+        int offset = current.offsets[id];
+        return new String(current.bytes, offset, current.offsets[id + 1] - offset, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * @return id of the username text[start..end) in table, with the given
+     *         hash, whose folded bytes are folded if it is not ASCII, or -1
+     *         if absent
+     */
+    private static int find(Table table, CharSequence text, int start, int end, byte[] folded, int hash) {
+        int[] slots = table.slots;
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < table.size && table.hashes[id] == hash
+                    && (folded == null ? equalsAscii(table, id, text, start, end) : equalsBytes(table, id, folded))) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * @return id of the username text[start..end), adding it if it is still
+     *         absent once the lock is held
+     */
+    private synchronized int add(CharSequence text, int start, int end, byte[] folded, int hash) {
+        int existing = find(table, text, start, end, folded, hash);
+        if (existing >= 0) {
+            return existing;
+        }
+
+        int length = folded == null ? end - start : folded.length;
+        if (byteCount + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+        }
+        if (folded == null) {
+            for (int i = start; i < end; i++) {
+                bytes[byteCount++] = (byte) toLowerAscii(text.charAt(i));
+            }
+        } else {
+            System.arraycopy(folded, 0, bytes, byteCount, length);
+            byteCount += length;
+        }
+
+        int id = size;
+        if (id == hashes.length) {
+            hashes = Arrays.copyOf(hashes, id * 2);
+            offsets = Arrays.copyOf(offsets, id * 2 + 1);
+        }
+        hashes[id] = hash;
+        offsets[id + 1] = byteCount;
+        size++;
+
+        if (2 * size > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int other = 0; other < size; other++) {
+                insert(other);
+            }
+        } else {
+            insert(id);
+        }
+        table = new Table(bytes, offsets, hashes, slots, size);
+        return id;
+    }
+
+    /*
+     * Requires lock on this.
+     */
+    private void insert(int id) {
+        int mask = slots.length - 1;
+        int slot = hashes[id] & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    private static boolean equalsAscii(Table table, int id, CharSequence text, int start, int end) {
+        byte[] bytes = table.bytes;
+        int offset = table.offsets[id];
+        if (table.offsets[id + 1] - offset != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (bytes[offset + i - start] != toLowerAscii(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsBytes(Table table, int id, byte[] folded) {
+        byte[] bytes = table.bytes;
+        int offset = table.offsets[id];
+        if (table.offsets[id + 1] - offset != folded.length) {
+            return false;
+        }
+        for (int i = 0; i < folded.length; i++) {
+            if (bytes[offset + i] != folded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] foldNonAscii(CharSequence text, int start, int end) {
+        return text.subSequence(start, end).toString().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /*
+     * FNV-1a over the folded bytes, then spread so the low bits used to pick
+     * a slot depend on every byte. hashAscii and hashBytes agree on ASCII.
+     */
+    private static int hashAscii(CharSequence text, int start, int end) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            h = (h ^ toLowerAscii(text.charAt(i))) * 0x01000193;
+        }
+        return spread(h);
+    }
+
+    private static int hashBytes(byte[] folded) {
+        int h = 0x811c9dc5;
+        for (byte b : folded) {
+            h = (h ^ (b & 0xFF)) * 0x01000193;
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
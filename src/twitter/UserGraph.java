@@ -0,0 +1,511 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, compact follows graph over case-folded usernames. Each user has
+ * a dense int id, and the users each user follows are stored in compressed
+ * sparse row (CSR) form: the followees of user u are the ids
+ * targets[offsets[u]..offsets[u+1]), sorted and distinct.
+ *
+ * User ids are the ids of a UserDictionary, so the graph can be combined with
+ * other id-space results, such as Extract.getMentionedUserIds, that use the
+ * same dictionary.
+ *
+ * asMap() presents the graph as a social network in the sense of
+ * SocialNetwork, without copying it into maps and sets, and the ranking
+ * methods order users by follower count as SocialNetwork.influencers does.
+ */
+public class UserGraph {
+
+    private final String[] names;
+    private final UserDictionary dictionary;
+    private final int[] offsets;
+    private final int[] targets;
+    /* Rep invariant:
+     *    dictionary.size() >= names.length, and names[u] == dictionary.name(u)
+     *    offsets.length == names.length + 1, nondecreasing, offsets[0] == 0,
+     *      offsets[names.length] == targets.length
+     *    each row targets[offsets[u]..offsets[u+1]) is strictly increasing,
+     *      has elements in [0, names.length), and does not contain u
+     * Abstraction function:
+     *    represents the graph in which user names[u] follows user names[v]
+     *    iff v is in row u of targets
+     */
+
+    UserGraph(String[] names, UserDictionary dictionary, int[] offsets, int[] targets) {
+        this.names = names;
+        this.dictionary = dictionary;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /*
+     * @return a builder holding the users and mention edges of tweets
+     */
+    private static Builder mentionEdges(MentionCache cache, UserDictionary dictionary) {
+        List<Tweet> tweets = cache.tweets();
+        int tweetCount = tweets.size();
+        String[][] mentions = new String[tweetCount][];
+        IntStream.range(0, tweetCount).parallel().forEach(i -> mentions[i] = cache.mentionsOf(i));
+
+        Builder builder = new Builder(dictionary);
+        for (int i = 0; i < tweetCount; i++) {
+            int author = builder.intern(tweets.get(i).getAuthor());
+            for (String mention : mentions[i]) {
+                builder.addEdge(author, builder.intern(mention));
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Build the follows graph that SocialNetwork.guessFollowsGraph specifies
+     * from @-mention evidence: a tweet's author follows every user it
+     * mentions, other than itself. Mentions are found in parallel, and users
+     * are numbered in order of first appearance in tweets, so the graph is
+     * the same on every run.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @return the follows graph; its users are the tweets' authors and
+     *         mentioned users
+     */
+    public static UserGraph fromTweets(List<Tweet> tweets) {
+        return fromTweets(tweets, new UserDictionary());
+    }
+
+    /**
+     * Build the follows graph from @-mention evidence, as fromTweets(tweets),
+     * numbering users by a shared dictionary.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @param dictionary dictionary in which to intern the tweets' authors and
+     *                   mentioned users
+     * @return the follows graph; its user ids are dictionary ids, and its
+     *         users are every username in dictionary once the tweets' users
+     *         are interned
+     */
+    public static UserGraph fromTweets(List<Tweet> tweets, UserDictionary dictionary) {
+        return mentionEdges(new MentionCache(tweets), dictionary).build();
+    }
+
+    /**
+     * Build the follows graph from @-mention evidence, as fromTweets(tweets),
+     * reusing the mentions already found by other passes over the same cache.
+     *
+     * @param mentions mention cache of a list of tweets
+     * @return fromTweets(mentions.tweets())
+     */
+    public static UserGraph fromTweets(MentionCache mentions) {
+        return mentionEdges(mentions, new UserDictionary()).build();
+    }
+
+    /**
+     * Build the follows graph from @-mention evidence, as fromTweets(tweets),
+     * plus hashtag evidence: authors with similar hashtag usage follow each
+     * other.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @param hashtags search for authors with similar hashtag usage
+     * @return the follows graph; its users are the tweets' authors and
+     *         mentioned users
+     */
+    public static UserGraph fromTweets(List<Tweet> tweets, HashtagSimilarity hashtags) {
+        Builder builder = mentionEdges(new MentionCache(tweets), new UserDictionary());
+        for (String[] pair : hashtags.similarAuthors(tweets)) {
+            int first = builder.intern(pair[0]);
+            int second = builder.intern(pair[1]);
+            builder.addEdge(first, second);
+            builder.addEdge(second, first);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Build a graph from a social network.
+     *
+     * @param followsGraph a social network as defined by SocialNetwork, not
+     *                     modified by this method
+     * @return the same network, with usernames case-folded and self-follows
+     *         dropped
+     */
+    public static UserGraph fromMap(Map<String, Set<String>> followsGraph) {
+        if (followsGraph instanceof MapView) {
+            return ((MapView) followsGraph).graph();
+        }
+        Builder builder = new Builder(new UserDictionary());
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int follower = builder.intern(entry.getKey());
+            for (String followee : entry.getValue()) {
+                builder.addEdge(follower, builder.intern(followee));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of users in the graph; user ids are 0..userCount()-1
+     */
+    public int userCount() {
+        return names.length;
+    }
+
+    /**
+     * @return number of follows edges in the graph
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param user user id
+     * @return the user's lowercase username
+     */
+    public String name(int user) {
+        return names[user];
+    }
+
+    /**
+     * @param username Twitter username, in any case
+     * @return the user's id, or -1 if the user is not in the graph
+     */
+    public int id(String username) {
+        int id = dictionary.id(username);
+        return id < names.length ? id : -1;
+    }
+
+    /**
+     * @return the dictionary whose ids this graph uses; ids it has assigned
+     *         since the graph was built are not in the graph
+     */
+    public UserDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param user user id
+     * @return number of users that user follows
+     */
+    public int outDegree(int user) {
+        return offsets[user + 1] - offsets[user];
+    }
+
+    /**
+     * @param user user id
+     * @return ids of the users that user follows, in increasing order
+     */
+    public int[] followees(int user) {
+        return Arrays.copyOfRange(targets, offsets[user], offsets[user + 1]);
+    }
+
+    /**
+     * @param follower user id
+     * @param followee user id
+     * @return true iff follower follows followee
+     */
+    public boolean follows(int follower, int followee) {
+        return Arrays.binarySearch(targets, offsets[follower], offsets[follower + 1], followee) >= 0;
+    }
+
+    /**
+     * @return number of users following each user, indexed by user id
+     */
+    public int[] followerCounts() {
+        int[] counts = new int[names.length];
+        for (int followee : targets) {
+            counts[followee]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Rank all users by follower count, as SocialNetwork.influencers does.
+     * Users are bucketed by count with a counting sort, so only users with
+     * equal counts are compared with each other.
+     *
+     * @return every username in the graph, in descending order of follower
+     *         count, ties broken alphabetically
+     */
+    public List<String> influencers() {
+        int[] counts = followerCounts();
+        int maxCount = 0;
+        for (int count : counts) {
+            maxCount = Math.max(maxCount, count);
+        }
+
+        // bucketStarts[c] is where users with c fewer followers than the max begin
+        int[] bucketStarts = new int[maxCount + 2];
+        for (int count : counts) {
+            bucketStarts[maxCount - count + 1]++;
+        }
+        for (int b = 0; b <= maxCount; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        String[] ranked = new String[names.length];
+        int[] next = Arrays.copyOf(bucketStarts, maxCount + 1);
+        for (int u = 0; u < names.length; u++) {
+            ranked[next[maxCount - counts[u]]++] = names[u];
+        }
+        for (int b = 0; b <= maxCount; b++) {
+            if (bucketStarts[b + 1] - bucketStarts[b] > 1) {
+                Arrays.sort(ranked, bucketStarts[b], bucketStarts[b + 1]);
+            }
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Find the k users with the most followers, keeping only the best k seen
+     * so far in a bounded heap, in O(n log k) time for n users.
+     *
+     * @param k number of users wanted, >= 0
+     * @return the first min(k, userCount()) elements of influencers()
+     */
+    public List<String> influencers(int k) {
+        int[] counts = followerCounts();
+        int[] top = TopK.select(names.length, k, (u, v) -> counts[u] != counts[v]
+                ? counts[u] > counts[v] : names[u].compareTo(names[v]) < 0);
+        String[] ranked = new String[top.length];
+        for (int i = 0; i < top.length; i++) {
+            ranked[i] = names[top[i]];
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * @return an unmodifiable social network, as defined by SocialNetwork,
+     *         viewing this graph: each user maps to the set of users they
+     *         follow, which may be empty
+     */
+    public Map<String, Set<String>> asMap() {
+        return new MapView();
+    }
+
+    /*
+     * Direct access to the CSR arrays for other graph algorithms in this
+     * package; callers must not modify them.
+     */
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    /*
+     * @return { inOffsets, sources }: the followers of user v, in increasing
+     *         order, are sources[inOffsets[v]..inOffsets[v+1])
+     */
+    int[][] reverse() {
+        int[] inOffsets = new int[names.length + 1];
+        for (int followee : targets) {
+            inOffsets[followee + 1]++;
+        }
+        for (int v = 0; v < names.length; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] sources = new int[targets.length];
+        int[] next = Arrays.copyOf(inOffsets, names.length);
+        for (int u = 0; u < names.length; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                sources[next[targets[e]]++] = u;
+            }
+        }
+        return new int[][] { inOffsets, sources };
+    }
+
+    /*
+     * Accumulates users and edges, then builds the CSR arrays.
+     */
+    static final class Builder {
+        private final UserDictionary dictionary;
+        private int[] sources = new int[16];
+        private int[] destinations = new int[16];
+        private int edgeCount;
+
+        Builder(UserDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        /*
+         * @return dictionary id of username, in any case
+         */
+        int intern(String username) {
+            return dictionary.intern(username);
+        }
+
+        /*
+         * Record that follower follows followee; self-follows are ignored,
+         * duplicates are removed by build().
+         */
+        void addEdge(int follower, int followee) {
+            if (follower == followee) {
+                return;
+            }
+            if (edgeCount == sources.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                destinations = Arrays.copyOf(destinations, edgeCount * 2);
+            }
+            sources[edgeCount] = follower;
+            destinations[edgeCount] = followee;
+            edgeCount++;
+        }
+
+        UserGraph build() {
+            int userCount = dictionary.size();
+            int[] offsets = new int[userCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[sources[e] + 1]++;
+            }
+            for (int u = 0; u < userCount; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            int[] scattered = new int[edgeCount];
+            int[] next = Arrays.copyOf(offsets, userCount);
+            for (int e = 0; e < edgeCount; e++) {
+                scattered[next[sources[e]]++] = destinations[e];
+            }
+
+            // sort and deduplicate each row in place, in parallel
+            int[] rowLengths = new int[userCount];
+            IntStream.range(0, userCount).parallel().forEach(u -> {
+                int from = offsets[u];
+                int to = offsets[u + 1];
+                Arrays.sort(scattered, from, to);
+                int length = 0;
+                for (int i = from; i < to; i++) {
+                    if (length == 0 || scattered[from + length - 1] != scattered[i]) {
+                        scattered[from + length++] = scattered[i];
+                    }
+                }
+                rowLengths[u] = length;
+            });
+
+            int[] compactOffsets = new int[userCount + 1];
+            for (int u = 0; u < userCount; u++) {
+                compactOffsets[u + 1] = compactOffsets[u] + rowLengths[u];
+            }
+            int[] targets = new int[compactOffsets[userCount]];
+            IntStream.range(0, userCount).parallel().forEach(u ->
+                    System.arraycopy(scattered, offsets[u], targets, compactOffsets[u], rowLengths[u]));
+
+            String[] names = new String[userCount];
+            for (int u = 0; u < userCount; u++) {
+                names[u] = dictionary.name(u);
+            }
+            return new UserGraph(names, dictionary, compactOffsets, targets);
+        }
+    }
+
+    /*
+     * @return id of the user whose lowercase username equals o, or -1 if there
+     *         is none; the views compare names exactly, like other maps
+     */
+    private int idOfName(Object o) {
+        if (!(o instanceof String)) {
+            return -1;
+        }
+        int user = id((String) o);
+        return user >= 0 && names[user].equals(o) ? user : -1;
+    }
+
+    /*
+     * Map view of the graph: every user is a key.
+     */
+    private final class MapView extends AbstractMap<String, Set<String>> {
+
+        UserGraph graph() {
+            return UserGraph.this;
+        }
+
+        @Override public int size() {
+            return names.length;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return idOfName(key) >= 0;
+        }
+
+        @Override public Set<String> get(Object key) {
+            int user = idOfName(key);
+            return user >= 0 ? new FolloweeSet(user) : null;
+        }
+
+        @Override public Set<Map.Entry<String, Set<String>>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Set<String>>>() {
+                @Override public int size() {
+                    return names.length;
+                }
+
+                @Override public Iterator<Map.Entry<String, Set<String>>> iterator() {
+                    return new Iterator<Map.Entry<String, Set<String>>>() {
+                        private int next = 0;
+
+                        @Override public boolean hasNext() {
+                            return next < names.length;
+                        }
+
+                        @Override public Map.Entry<String, Set<String>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int user = next++;
+                            return new AbstractMap.SimpleImmutableEntry<String, Set<String>>(
+                                    names[user], new FolloweeSet(user));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /*
+     * Set view of the usernames one user follows.
+     */
+    private final class FolloweeSet extends AbstractSet<String> {
+        private final int user;
+
+        FolloweeSet(int user) {
+            this.user = user;
+        }
+
+        @Override public int size() {
+            return outDegree(user);
+        }
+
+        @Override public boolean contains(Object o) {
+            int followee = idOfName(o);
+            return followee >= 0 && follows(user, followee);
+        }
+
+        @Override public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = offsets[user];
+
+                @Override public boolean hasNext() {
+                    return next < offsets[user + 1];
+                }
+
+                @Override public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return names[targets[next++]];
+                }
+            };
+        }
+    }
+}
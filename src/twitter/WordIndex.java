@@ -0,0 +1,226 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mutable inverted index from words to the tweets that contain them, for
+ * answering many Filter.containing queries over the same, growing corpus.
+ *
+ * Words are as Filter.containing defines them: nonempty sequences of nonspace
+ * characters, compared case-insensitively. Each word maps to the increasing
+ * positions of the tweets containing it, so a query is a merge of the posting
+ * lists of its words and never looks at tweet text.
+ *
+ * A WordIndex is not thread-safe.
+ */
+public class WordIndex {
+
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    /* Rep invariant:
+     *    keys of postings are nonempty, lowercase and contain no whitespace
+     *    each Postings is strictly increasing, with elements < tweets.size()
+     * Abstraction function:
+     *    represents the corpus tweets, where word w occurs in exactly the
+     *    tweets at the positions in postings[w]
+     */
+
+    /**
+     * Make an index of an empty corpus.
+     */
+    public WordIndex() {
+    }
+
+    /**
+     * Index a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids, not modified by this method
+     * @return an index whose corpus is the tweets, in the same order
+     */
+    public static WordIndex of(List<Tweet> tweets) {
+        WordIndex index = new WordIndex();
+        index.addAll(tweets);
+        return index;
+    }
+
+    /**
+     * Append a tweet to the end of the corpus.
+     *
+     * @param tweet tweet whose id is distinct from those already in the corpus
+     */
+    public void add(Tweet tweet) {
+        int position = tweets.size();
+        tweets.add(tweet);
+        for (String word : tweet.getText().toLowerCase().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            Postings list = postings.get(word);
+            if (list == null) {
+                list = new Postings();
+                postings.put(word, list);
+            }
+            list.addIfAbsent(position);
+        }
+    }
+
+    /**
+     * Append tweets to the end of the corpus, in order.
+     *
+     * @param tweets tweets whose ids are distinct from each other and from
+     *               those already in the corpus, not modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets in the corpus
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     *
+     * @param words a list of words to search for in the tweets.
+     *              A word is a nonempty sequence of nonspace characters.
+     * @return all and only the tweets in the corpus that include at least one
+     *         of the words, as defined by Filter.containing, in the same order
+     *         as in the corpus.
+     */
+    public List<Tweet> containing(List<String> words) {
+        int[] positions = positionsContaining(words);
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Find the positions of tweets that contain certain words.
+     *
+     * @param words a list of words to search for in the tweets.
+     *              A word is a nonempty sequence of nonspace characters.
+     * @return the positions in the corpus of all and only the tweets that
+     *         include at least one of the words, in increasing order.
+     */
+    public int[] positionsContaining(List<String> words) {
+        Set<String> wordSet = new LinkedHashSet<>();
+        for (String word : words) {
+            wordSet.add(word.toLowerCase());
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String word : wordSet) {
+            Postings list = postings.get(word);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        if (lists.size() == 1) {
+            return lists.get(0).toArray();
+        }
+        return union(lists);
+    }
+
+    /*
+     * K-way merge of posting lists using a binary min-heap of list indices
+     * keyed by each list's next unmerged position.
+     *
+     * @return the increasing positions found in any of lists, once each
+     */
+    private static int[] union(List<Postings> lists) {
+        int k = lists.size();
+        int[] cursors = new int[k];
+        int[] heap = new int[k];
+        int total = 0;
+        for (int i = 0; i < k; i++) {
+            heap[i] = i;
+            total += lists.get(i).size;
+        }
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, k, i, lists, cursors);
+        }
+
+        int[] result = new int[total];
+        int count = 0;
+        int heapSize = k;
+        while (heapSize > 0) {
+            int top = heap[0];
+            int position = lists.get(top).positions[cursors[top]];
+            if (count == 0 || result[count - 1] != position) {
+                result[count++] = position;
+            }
+            cursors[top]++;
+            if (cursors[top] == lists.get(top).size) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, 0, lists, cursors);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int i, List<Postings> lists, int[] cursors) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heapSize && head(heap[left], lists, cursors) < head(heap[smallest], lists, cursors)) {
+                smallest = left;
+            }
+            if (right < heapSize && head(heap[right], lists, cursors) < head(heap[smallest], lists, cursors)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            int swap = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = swap;
+            i = smallest;
+        }
+    }
+
+    private static int head(int list, List<Postings> lists, int[] cursors) {
+        return lists.get(list).positions[cursors[list]];
+    }
+
+    /*
+     * Growable, strictly increasing list of tweet positions.
+     */
+    private static final class Postings {
+        private int[] positions = new int[2];
+        private int size;
+
+        void addIfAbsent(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
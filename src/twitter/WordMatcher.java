@@ -0,0 +1,228 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable matcher that tests whether a text contains any of a set of words,
+ * with the word semantics of Filter.containing: a word is a nonempty sequence
+ * of nonspace characters (space meaning the regex class \s), and words are
+ * compared after String.toLowerCase().
+ *
+ * matchesAny walks the text once and stops at the first matching word. Words
+ * made only of ASCII characters are case-folded and hashed in place over
+ * their character range, without allocating; a word containing any other
+ * character falls back to toLowerCase() on a copy of it, so full Unicode
+ * case mapping still applies.
+ */
+public class WordMatcher {
+
+    private final Set<String> words;
+    private final String[] table;
+    private final int[] hashes;
+    private final int mask;
+    private final boolean asciiFastPath;
+    /* Rep invariant:
+     *    words contains only strings s with s.equals(s.toLowerCase())
+     *    table.length == hashes.length is a power of two, mask == table.length - 1
+     *    table holds every element of words exactly once, with more than half
+     *      of its slots null; hashes[i] == table[i].hashCode() when table[i] != null
+     * Abstraction function:
+     *    represents the set of case-folded query words, words
+     */
+
+    /**
+     * Make a matcher for a list of words.
+     *
+     * @param words words to search for; a word is a nonempty sequence of
+     *              nonspace characters.
+     */
+    public WordMatcher(Collection<String> words) {
+        this.words = new HashSet<>();
+        for (String word : words) {
+            this.words.add(word.toLowerCase());
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(1, this.words.size()) * 4);
+        this.table = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        for (String word : this.words) {
+            int hash = word.hashCode();
+            int slot = spread(hash) & mask;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = word;
+            hashes[slot] = hash;
+        }
+
+        // Turkish and Azeri lowercase 'I' to a dotless i, outside ASCII
+        String language = Locale.getDefault().getLanguage();
+        this.asciiFastPath = !language.equals("tr") && !language.equals("az");
+    }
+
+    /**
+     * @param text text to search
+     * @return true iff text, split into words at runs of spaces, includes at
+     *         least one of this matcher's words, comparing case-insensitively
+     */
+    public boolean matchesAny(CharSequence text) {
+        if (words.isEmpty()) {
+            return false;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isSpace(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                return false;
+            }
+
+            int start = i;
+            int hash = 0;
+            boolean ascii = true;
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (isSpace(c)) {
+                    break;
+                }
+                if (c >= 0x80) {
+                    ascii = false;
+                }
+                hash = 31 * hash + toLowerAscii(c);
+            }
+
+            if (ascii && asciiFastPath) {
+                if (containsAscii(text, start, i, hash)) {
+                    return true;
+                }
+            } else if (words.contains(text.subSequence(start, i).toString().toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Test a UTF-8 encoded text without decoding it, except for words that
+     * contain non-ASCII characters. Spaces are ASCII, and no byte of a
+     * multi-byte UTF-8 sequence is ASCII, so words can be split on bytes.
+     *
+     * @param utf8 array holding the text
+     * @param offset index of the text's first byte
+     * @param length number of bytes in the text
+     * @return matchesAny(text), for the text the bytes encode
+     */
+    public boolean matchesAny(byte[] utf8, int offset, int length) {
+        if (words.isEmpty()) {
+            return false;
+        }
+        int limit = offset + length;
+        int i = offset;
+        while (i < limit) {
+            while (i < limit && isSpace((char) utf8[i])) {
+                i++;
+            }
+            if (i == limit) {
+                return false;
+            }
+
+            int start = i;
+            int hash = 0;
+            boolean ascii = true;
+            for (; i < limit; i++) {
+                byte b = utf8[i];
+                if (isSpace((char) b)) {
+                    break;
+                }
+                if (b < 0) {
+                    ascii = false;
+                }
+                hash = 31 * hash + toLowerAscii((char) b);
+            }
+
+            if (ascii && asciiFastPath) {
+                if (containsAscii(utf8, start, i, hash)) {
+                    return true;
+                }
+            } else if (words.contains(new String(utf8, start, i - start, StandardCharsets.UTF_8).toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * @return true iff the ASCII characters text[start..end), lowercased and
+     *         with String hash code hash, are one of the words.
+     */
+    private boolean containsAscii(CharSequence text, int start, int end, int hash) {
+        for (int slot = spread(hash) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equalsLowerAscii(table[slot], text, start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * @return true iff the ASCII bytes utf8[start..end), lowercased and with
+     *         String hash code hash, are one of the words.
+     */
+    private boolean containsAscii(byte[] utf8, int start, int end, int hash) {
+        for (int slot = spread(hash) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equalsLowerAscii(table[slot], utf8, start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsLowerAscii(String word, byte[] utf8, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (word.charAt(i - start) != toLowerAscii((char) utf8[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsLowerAscii(String word, CharSequence text, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (word.charAt(i - start) != toLowerAscii(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /*
+     * @return true iff c is in the regex class \s, [ \t\n\x0B\f\r]
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
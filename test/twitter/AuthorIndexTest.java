@@ -0,0 +1,51 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class AuthorIndexTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "loving this discussion about algorithms", d2);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+    @Test
+    public void testWrittenByCaseInsensitive() {
+        AuthorIndex index = AuthorIndex.of(tweets);
+        assertEquals("expected both spellings in input order", Arrays.asList(tweet1, tweet3), index.writtenBy("ALYSSA"));
+        assertEquals("expected count", 2, index.count("alyssa"));
+        assertEquals("expected case-folded authors", 2, index.authorCount());
+    }
+
+    @Test
+    public void testWrittenByUnknownUser() {
+        AuthorIndex index = AuthorIndex.of(tweets);
+        assertTrue("expected empty list", index.writtenBy("unknown").isEmpty());
+        assertEquals("expected zero count", 0, index.count("unknown"));
+    }
+
+    @Test
+    public void testBatchLookup() {
+        AuthorIndex index = AuthorIndex.of(TweetStore.of(tweets));
+        Map<String, List<Tweet>> result = index.writtenBy(Arrays.asList("bbitdiddle", "Alyssa", "nobody"));
+        assertEquals("expected one entry per username", Arrays.asList("bbitdiddle", "Alyssa", "nobody"),
+                Arrays.asList(result.keySet().toArray()));
+        assertEquals("expected tweets", Arrays.asList(tweet2), result.get("bbitdiddle"));
+        assertEquals("expected tweets", Arrays.asList(tweet1, tweet3), result.get("Alyssa"));
+        assertTrue("expected empty list", result.get("nobody").isEmpty());
+    }
+}
@@ -0,0 +1,190 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CorpusGeneratorTest {
+
+    /*
+     * Testing strategy:
+     *   seed: same, different
+     *   access: tweet(i), stream() sequential and parallel, generate(),
+     *           writeJson read back by TweetReader and TweetFileReader
+     *   settings: defaults, short lengths, no mentions or hashtags, each time
+     *             distribution, invalid values
+     *   distributions: author activity skewed toward low ranks, mention and
+     *                  hashtag rates near their means
+     */
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Instant start = Instant.parse("2016-02-17T00:00:00Z");
+
+    /*
+     * Tweet.equals compares only ids, so compare every field through toString.
+     */
+    private static List<String> fields(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::toString).collect(Collectors.toList());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testDeterministic() {
+        List<Tweet> first = new CorpusGenerator.Builder(42).count(500).build().generate();
+        List<Tweet> second = new CorpusGenerator.Builder(42).count(500).build().generate();
+        List<Tweet> other = new CorpusGenerator.Builder(43).count(500).build().generate();
+        assertEquals("expected same corpus from same seed", fields(first), fields(second));
+        assertNotEquals("expected different corpus from different seed", fields(first), fields(other));
+
+        CorpusGenerator generator = new CorpusGenerator.Builder(42).count(500).build();
+        assertEquals("expected random access to agree", first.get(317).toString(), generator.tweet(317).toString());
+        assertEquals("expected parallel stream in index order", fields(first),
+                fields(generator.stream().parallel().collect(Collectors.toList())));
+    }
+
+    @Test
+    public void testTweets() {
+        CorpusGenerator generator = new CorpusGenerator.Builder(1).count(2000).authors(300)
+                .length(10, 60).time(start, Duration.ofHours(2), CorpusGenerator.TimeDistribution.SEQUENTIAL)
+                .build();
+        List<Tweet> tweets = generator.generate();
+        assertEquals("expected count tweets", 2000, tweets.size());
+        Set<String> authors = new HashSet<>();
+        for (int rank = 0; rank < generator.authors(); rank++) {
+            String author = generator.author(rank);
+            assertTrue("expected valid username " + author,
+                    author.length() <= 15 && author.matches("[A-Za-z0-9_]+"));
+            authors.add(author.toLowerCase(Locale.ROOT));
+        }
+        assertEquals("expected distinct usernames", 300, authors.size());
+
+        Instant previous = start;
+        for (int i = 0; i < tweets.size(); i++) {
+            Tweet tweet = tweets.get(i);
+            assertEquals("expected id index + 1", i + 1, tweet.getId());
+            assertTrue("expected known author", authors.contains(tweet.getAuthor().toLowerCase(Locale.ROOT)));
+            assertTrue("expected text length at most 60: " + tweet.getText(),
+                    tweet.getText().length() >= 1 && tweet.getText().length() <= 60);
+            assertFalse("expected single spaces", tweet.getText().contains("  "));
+            assertFalse("expected increasing timestamps", tweet.getTimestamp().isBefore(previous));
+            assertTrue("expected timestamp in window",
+                    tweet.getTimestamp().isBefore(start.plus(Duration.ofHours(2))));
+            assertEquals("expected whole seconds", 0, tweet.getTimestamp().getNano());
+            previous = tweet.getTimestamp();
+        }
+        assertTrue("expected mentions to be generated authors",
+                authors.containsAll(Extract.getMentionedUsers(tweets)));
+    }
+
+    @Test
+    public void testDistributions() {
+        List<Tweet> tweets = new CorpusGenerator.Builder(7).count(20000).authors(1000, 1.0)
+                .rates(0.5, 0.2, 100).build().generate();
+        Map<String, Integer> activity = new HashMap<>();
+        int mentions = 0;
+        int hashtags = 0;
+        for (Tweet tweet : tweets) {
+            activity.merge(tweet.getAuthor(), 1, Integer::sum);
+            mentions += MentionScanner.scan(tweet.getText()).length;
+            hashtags += MentionScanner.scanHashtags(tweet.getText()).length;
+        }
+        int top = activity.values().stream().mapToInt(Integer::intValue).max().getAsInt();
+        assertTrue("expected most active author to write over 5% of tweets, got " + top, top > 1000);
+        assertTrue("expected a long tail of authors, got " + activity.size(), activity.size() > 500);
+        assertEquals("expected about 0.5 mentions per tweet", 0.5, (double) mentions / tweets.size(), 0.05);
+        assertEquals("expected about 0.2 hashtags per tweet", 0.2, (double) hashtags / tweets.size(), 0.05);
+
+        List<Tweet> plain = new CorpusGenerator.Builder(7).count(500).rates(0, 0, 1).build().generate();
+        assertTrue("expected no mentions", Extract.getMentionedUsers(plain).isEmpty());
+    }
+
+    @Test
+    public void testTimeDistributions() {
+        for (CorpusGenerator.TimeDistribution distribution : CorpusGenerator.TimeDistribution.values()) {
+            List<Tweet> tweets = new CorpusGenerator.Builder(3).count(1000)
+                    .time(start, Duration.ofDays(2), distribution).build().generate();
+            Timespan timespan = Extract.getTimespan(tweets);
+            assertFalse("expected start in window for " + distribution, timespan.getStart().isBefore(start));
+            assertTrue("expected end in window for " + distribution,
+                    timespan.getEnd().isBefore(start.plus(Duration.ofDays(2))));
+        }
+
+        List<Tweet> diurnal = new CorpusGenerator.Builder(3).count(4000)
+                .time(start, Duration.ofDays(4), CorpusGenerator.TimeDistribution.DIURNAL).build().generate();
+        int evening = 0;
+        int morning = 0;
+        for (Tweet tweet : diurnal) {
+            long hour = tweet.getTimestamp().getEpochSecond() % 86400 / 3600;
+            evening += (hour >= 16 && hour < 20) ? 1 : 0;
+            morning += (hour >= 4 && hour < 8) ? 1 : 0;
+        }
+        assertTrue("expected more tweets around 18:00 than 06:00", evening > 4 * morning);
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws IOException {
+        CorpusGenerator generator = new CorpusGenerator.Builder(5).count(300)
+                .time(start, Duration.ofDays(1), CorpusGenerator.TimeDistribution.UNIFORM).build();
+        Path file = folder.getRoot().toPath().resolve("corpus.json");
+        generator.writeJson(file);
+        List<String> expected = fields(generator.generate());
+        assertEquals("expected TweetReader to read the corpus back", expected,
+                fields(TweetReader.readTweetsFromWeb(file.toUri().toURL())));
+        assertEquals("expected TweetFileReader to read the corpus back", expected,
+                fields(TweetFileReader.readTweetsFromFile(file)));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        CorpusGenerator generator = new CorpusGenerator.Builder(5).count(0).build();
+        assertTrue("expected no tweets", generator.generate().isEmpty());
+        Path file = folder.getRoot().toPath().resolve("empty.json");
+        generator.writeJson(file);
+        assertTrue("expected empty array", TweetReader.readTweetsFromWeb(file.toUri().toURL()).isEmpty());
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        for (Runnable invalid : Arrays.<Runnable>asList(
+                () -> new CorpusGenerator.Builder(0).count(-1),
+                () -> new CorpusGenerator.Builder(0).authors(0),
+                () -> new CorpusGenerator.Builder(0).authors(10, 0),
+                () -> new CorpusGenerator.Builder(0).rates(-1, 0, 1),
+                () -> new CorpusGenerator.Builder(0).length(0, 10),
+                () -> new CorpusGenerator.Builder(0).length(20, 10),
+                () -> new CorpusGenerator.Builder(0).length(1, 141),
+                () -> new CorpusGenerator.Builder(0).time(start, Duration.ZERO,
+                        CorpusGenerator.TimeDistribution.UNIFORM))) {
+            try {
+                invalid.run();
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+    }
+}
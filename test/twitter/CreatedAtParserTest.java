@@ -0,0 +1,90 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CreatedAtParserTest {
+
+    private static final DateTimeFormatter FORMAT =
+            DateTimeFormatter.ofPattern(CreatedAtParser.PATTERN, Locale.US);
+
+    @Test
+    public void testParseUtc() {
+        assertEquals("expected instant", Instant.parse("2016-02-17T10:00:00Z"),
+                CreatedAtParser.parse("Wed Feb 17 10:00:00 +0000 2016"));
+    }
+
+    @Test
+    public void testParseNegativeOffset() {
+        assertEquals("expected offset applied", Instant.parse("2016-02-17T11:00:00Z"),
+                CreatedAtParser.parse("Wed Feb 17 06:00:00 -0500 2016"));
+    }
+
+    @Test
+    public void testParseLeapDay() {
+        assertEquals("expected leap day", Instant.parse("2000-02-29T23:59:59Z"),
+                CreatedAtParser.parse("Tue Feb 29 23:59:59 +0000 2000"));
+    }
+
+    @Test
+    public void testMatchesFormatterOnRandomTimestamps() {
+        // Round-trip random instants and offsets through the reference formatter.
+        Random random = new Random(6005);
+        for (int i = 0; i < 10000; i++) {
+            long epochSecond = random.nextInt(Integer.MAX_VALUE) * 2L - Integer.MAX_VALUE;
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds((random.nextInt(37) - 18) * 1800);
+            String text = Instant.ofEpochSecond(epochSecond).atOffset(offset).format(FORMAT);
+            assertEquals("expected same as formatter for " + text,
+                    ZonedDateTime.parse(text, FORMAT).toEpochSecond(), CreatedAtParser.parseEpochSecond(text));
+        }
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testWrongDayOfWeekRejected() {
+        CreatedAtParser.parse("Thu Feb 17 10:00:00 +0000 2016");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testMalformedRejected() {
+        CreatedAtParser.parse("2016-02-17T10:00:00Z");
+    }
+
+    @Test
+    public void testLargestOffsetAccepted() {
+        assertEquals("expected offset applied", Instant.parse("2016-02-16T16:00:00Z"),
+                CreatedAtParser.parse("Wed Feb 17 10:00:00 +1800 2016"));
+        assertEquals("expected offset applied", Instant.parse("2016-02-18T04:00:00Z"),
+                CreatedAtParser.parse("Wed Feb 17 10:00:00 -1800 2016"));
+    }
+
+    @Test
+    public void testOffsetBeyondRangeRejectedLikeFormatter() {
+        for (String text : new String[] { "Wed Feb 17 10:00:00 +1830 2016", "Wed Feb 17 10:00:00 -1801 2016",
+                "Wed Feb 17 10:00:00 +1900 2016" }) {
+            try {
+                ZonedDateTime.parse(text, FORMAT);
+                fail("expected formatter to reject " + text);
+            } catch (DateTimeParseException e) {
+                // expected
+            }
+            try {
+                CreatedAtParser.parse(text);
+                fail("expected parser to reject " + text);
+            } catch (DateTimeParseException e) {
+                // expected
+            }
+        }
+    }
+}
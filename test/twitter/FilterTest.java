@@ -48,6 +48,15 @@ public class FilterTest {
         assertTrue("expected list to contain tweet", writtenBy.contains(tweet1));
     }
 
+    @Test
+    public void testWrittenByMixedCaseAuthors() {
+        Tweet shouting = new Tweet(4, "ALYSSA", "rivest!", d2);
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, shouting);
+        List<Tweet> writtenBy = Filter.writtenBy(tweets, "Alyssa");
+        assertEquals("expected authors matched in any case", Arrays.asList(tweet1, shouting), writtenBy);
+        assertEquals("expected same as store overload", writtenBy, Filter.writtenBy(TweetStore.of(tweets), "Alyssa"));
+    }
+
     // Test cases for inTimespan
     @Test
     public void testInTimespanMultipleTweetsMultipleResults() {
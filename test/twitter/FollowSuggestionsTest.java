@@ -0,0 +1,96 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowSuggestionsTest {
+
+    /*
+     * Testing strategy:
+     *   user: unknown, follows nobody, friends of friends with ties and
+     *         already-followed users
+     *   degree cap: 0, below and above a followee's out-degree
+     *   batch queries compared with one-at-a-time queries and a map-based
+     *   count on a random graph
+     */
+
+    private static Map<String, Set<String>> network() {
+        Map<String, Set<String>> network = new HashMap<>();
+        network.put("alyssa", new HashSet<>(Arrays.asList("ben", "cy")));
+        network.put("ben", new HashSet<>(Arrays.asList("dan", "eve", "cy", "alyssa")));
+        network.put("cy", new HashSet<>(Arrays.asList("dan", "fay")));
+        return network;
+    }
+
+    @Test
+    public void testSuggestions() {
+        FollowSuggestions suggestions = new FollowSuggestions(UserGraph.fromMap(network()));
+        assertEquals("expected common-followee ranking, ties alphabetical",
+                Arrays.asList("dan", "eve", "fay"), suggestions.suggest("Alyssa", 5));
+        assertEquals("expected top 1", Arrays.asList("dan"), suggestions.suggest("alyssa", 1));
+        assertTrue("expected nothing for user who follows nobody", suggestions.suggest("dan", 5).isEmpty());
+        assertTrue("expected nothing for unknown user", suggestions.suggest("bert", 5).isEmpty());
+        assertEquals("expected scratch state reset between queries",
+                Arrays.asList("dan", "eve", "fay"), suggestions.suggest("alyssa", 5));
+    }
+
+    @Test
+    public void testDegreeCap() {
+        UserGraph graph = UserGraph.fromMap(network());
+        assertEquals("expected ben skipped", Arrays.asList("dan", "fay"),
+                new FollowSuggestions(graph, 3).suggest("alyssa", 5));
+        assertTrue("expected nobody expanded", new FollowSuggestions(graph, 0).suggest("alyssa", 5).isEmpty());
+    }
+
+    @Test
+    public void testBatchMatchesMapCount() {
+        Random random = new Random(6005);
+        Map<String, Set<String>> network = new HashMap<>();
+        List<String> users = new ArrayList<>();
+        for (int u = 0; u < 300; u++) {
+            users.add("user" + u);
+        }
+        for (String user : users) {
+            Set<String> followees = new HashSet<>();
+            for (int e = random.nextInt(12); e > 0; e--) {
+                followees.add(users.get(random.nextInt(users.size())));
+            }
+            followees.remove(user);
+            network.put(user, followees);
+        }
+        FollowSuggestions suggestions = new FollowSuggestions(UserGraph.fromMap(network));
+        List<List<String>> batch = suggestions.suggestAll(users, 10);
+
+        for (int i = 0; i < users.size(); i++) {
+            String user = users.get(i);
+            Map<String, Integer> counts = new HashMap<>();
+            for (String friend : network.get(user)) {
+                for (String candidate : network.get(friend)) {
+                    if (!candidate.equals(user) && !network.get(user).contains(candidate)) {
+                        counts.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+            List<String> expected = new ArrayList<>(counts.keySet());
+            Collections.sort(expected, (a, b) -> counts.get(a).equals(counts.get(b))
+                    ? a.compareTo(b) : counts.get(b) - counts.get(a));
+            expected = expected.subList(0, Math.min(10, expected.size()));
+            assertEquals("expected same suggestions", expected, batch.get(i));
+            assertEquals("expected same as single query", expected, suggestions.suggest(user, 10));
+        }
+    }
+}
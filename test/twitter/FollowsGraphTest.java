@@ -0,0 +1,118 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class FollowsGraphTest {
+
+    /*
+     * Testing strategy:
+     *   graph: empty, one tweet, repeated and self mentions, mixed case
+     *   incremental state compared with a full rebuild after every batch
+     *   influencers(k): k = 0, k within a tie block, k >= users
+     *   concurrent reader while a writer appends: never sees half a batch
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test
+    public void testEmpty() {
+        FollowsGraph graph = new FollowsGraph();
+        assertEquals("expected no users", 0, graph.userCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertTrue("expected no influencers", graph.influencers(5).isEmpty());
+        assertTrue("expected empty snapshot", graph.snapshot().asMap().isEmpty());
+    }
+
+    @Test
+    public void testAddTweets() {
+        FollowsGraph graph = new FollowsGraph();
+        graph.add(new Tweet(1, "Alyssa", "@bbitdiddle @ALYSSA talk?", d1));
+        graph.add(new Tweet(2, "ernie", "@BBitdiddle @alyssa", d1));
+        graph.add(new Tweet(3, "alyssa", "@bbitdiddle again", d1));
+
+        assertEquals("expected users", 3, graph.userCount());
+        assertEquals("expected distinct edges", 3, graph.edgeCount());
+        assertTrue("expected case-insensitive edge", graph.follows("ALYSSA", "BBitDiddle"));
+        assertFalse("expected no self-follow", graph.follows("alyssa", "alyssa"));
+        assertEquals("expected follower count", 2, graph.followerCount("bbitdiddle"));
+        assertEquals("expected unknown user", 0, graph.followerCount("bert"));
+        assertEquals("expected ranking", Arrays.asList("bbitdiddle", "alyssa", "ernie"), graph.influencers(3));
+        assertEquals("expected top 1", Arrays.asList("bbitdiddle"), graph.influencers(1));
+        assertTrue("expected nobody", graph.influencers(0).isEmpty());
+    }
+
+    @Test
+    public void testMatchesRebuild() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        FollowsGraph graph = new FollowsGraph();
+        for (int batch = 0; batch < 20; batch++) {
+            List<Tweet> added = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                StringBuilder text = new StringBuilder("text");
+                for (int m = random.nextInt(4); m > 0; m--) {
+                    text.append(" @User").append(random.nextInt(300));
+                }
+                added.add(new Tweet(tweets.size() + i, "user" + random.nextInt(300), text.toString(), d1));
+            }
+            tweets.addAll(added);
+            if (batch % 2 == 0) {
+                graph.addAll(added);
+            } else {
+                for (Tweet tweet : added) {
+                    graph.add(tweet);
+                }
+            }
+
+            UserGraph rebuilt = UserGraph.fromTweets(tweets);
+            assertEquals("expected same graph", rebuilt.asMap(), graph.snapshot().asMap());
+            assertEquals("expected same edge count", rebuilt.edgeCount(), graph.edgeCount());
+            for (int k : new int[] { 1, 7, 50, 1000 }) {
+                assertEquals("expected same top " + k, rebuilt.influencers(k), graph.influencers(k));
+            }
+        }
+    }
+
+    @Test
+    public void testReadersSeeWholeBatches() throws InterruptedException {
+        // every batch adds a pair of mutual follows, so a consistent view has only mutual edges
+        FollowsGraph graph = new FollowsGraph();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                graph.addAll(Arrays.asList(
+                        new Tweet(2 * i, "a" + i, "@b" + i, d1),
+                        new Tweet(2 * i + 1, "b" + i, "@a" + i, d1)));
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            UserGraph snapshot = graph.snapshot();
+            if (snapshot.edgeCount() % 2 != 0) {
+                failure.set("odd edge count " + snapshot.edgeCount());
+            }
+            for (int u = 0; u < snapshot.userCount(); u++) {
+                for (int v : snapshot.followees(u)) {
+                    if (!snapshot.follows(v, u)) {
+                        failure.set("one-way edge from " + snapshot.name(u));
+                    }
+                }
+            }
+        }
+        writer.join();
+        assertNull("expected consistent snapshots", failure.get());
+        assertEquals("expected all edges", 4000, graph.edgeCount());
+    }
+}
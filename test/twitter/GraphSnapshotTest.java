@@ -0,0 +1,129 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GraphSnapshotTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testQueries() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Alyssa", "@bbitdiddle @zoe talk?", d1),
+                new Tweet(2, "ernie", "@BBitdiddle @alyssa", d1),
+                new Tweet(3, "bbitdiddle", "no mentions", d1),
+                new Tweet(4, "Zo\u00eb", "@ernie", d1));
+        UserGraph graph = UserGraph.fromTweets(tweets);
+        Path file = folder.newFile("graph.snap").toPath();
+        GraphSnapshotWriter.write(graph, file);
+
+        GraphSnapshotReader snapshot = GraphSnapshotReader.open(file);
+        assertEquals("expected users", 5, snapshot.userCount());
+        assertEquals("expected edges", 5, snapshot.edgeCount());
+        assertEquals("expected same ids", graph.id("ernie"), snapshot.id("ERNIE"));
+        assertEquals("expected non-ASCII lookup", graph.id("zo\u00eb"), snapshot.id("ZO\u00cb"));
+        assertEquals("expected unknown user", -1, snapshot.id("bert"));
+        assertEquals("expected followees", Arrays.asList("bbitdiddle", "zoe"), snapshot.followees("alyssa"));
+        assertEquals("expected followers", Arrays.asList("alyssa", "ernie"), snapshot.followers("bbitdiddle"));
+        assertEquals("expected non-ASCII follower", Arrays.asList("zo\u00eb"), snapshot.followers("ernie"));
+        assertTrue("expected no followers", snapshot.followers("zo\u00eb").isEmpty());
+        assertTrue("expected nothing for unknown user", snapshot.followees("bert").isEmpty());
+        assertTrue("expected edge", snapshot.follows(snapshot.id("ernie"), snapshot.id("alyssa")));
+        assertFalse("expected no reverse edge", snapshot.follows(snapshot.id("alyssa"), snapshot.id("ernie")));
+        assertEquals("expected in-degree", 2, snapshot.inDegree(snapshot.id("bbitdiddle")));
+        assertEquals("expected same graph after load", graph.asMap(), snapshot.toUserGraph().asMap());
+    }
+
+    @Test
+    public void testMatchesGraph() throws IOException {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tweets.add(new Tweet(i, "user" + random.nextInt(500),
+                    "@user" + random.nextInt(500) + " @User" + random.nextInt(500), d1));
+        }
+        UserGraph graph = UserGraph.fromTweets(tweets);
+        Path file = folder.newFile("random.snap").toPath();
+        GraphSnapshotWriter.write(graph, file);
+
+        GraphSnapshotReader snapshot = GraphSnapshotReader.open(file);
+        int[][] reverse = graph.reverse();
+        for (int u = 0; u < graph.userCount(); u++) {
+            assertEquals("expected same name", graph.name(u), snapshot.name(u));
+            assertEquals("expected lookup by name", u, snapshot.id(graph.name(u)));
+            assertArrayEquals("expected same followees", graph.followees(u), snapshot.followees(u));
+            assertArrayEquals("expected same followers",
+                    Arrays.copyOfRange(reverse[1], reverse[0][u], reverse[0][u + 1]), snapshot.followers(u));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Path file = folder.newFile("empty.snap").toPath();
+        GraphSnapshotWriter.write(UserGraph.fromMap(new HashMap<>()), file);
+        GraphSnapshotReader snapshot = GraphSnapshotReader.open(file);
+        assertEquals("expected no users", 0, snapshot.userCount());
+        assertEquals("expected unknown user", -1, snapshot.id("alyssa"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = folder.newFile("tweets.snap").toPath();
+        TweetSnapshotWriter.write(new ArrayList<>(), file);
+        GraphSnapshotReader.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedFile() throws IOException {
+        Path file = folder.newFile("truncated.snap").toPath();
+        GraphSnapshotWriter.write(UserGraph.fromMap(new HashMap<>()), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        GraphSnapshotReader.open(file);
+    }
+
+    @Test
+    public void testNameOrderMatchesCompareUnsigned() {
+        // short alphabets make long shared prefixes, prefixes of other names
+        // and duplicates; 0xE9 sorts above every ASCII byte
+        Random random = new Random(6005);
+        byte[] alphabet = { 'a', 'b', '_', (byte) 0xE9 };
+        byte[][] names = new byte[5000][];
+        for (int u = 0; u < names.length; u++) {
+            names[u] = new byte[random.nextInt(8)];
+            for (int i = 0; i < names[u].length; i++) {
+                names[u][i] = alphabet[random.nextInt(alphabet.length)];
+            }
+        }
+        int[] order = GraphSnapshotWriter.nameOrder(names);
+        boolean[] seen = new boolean[names.length];
+        for (int i = 0; i < order.length; i++) {
+            assertFalse("expected each user once", seen[order[i]]);
+            seen[order[i]] = true;
+            if (i > 0) {
+                assertTrue("expected increasing names at " + i,
+                        GraphSnapshotWriter.compareUnsigned(names[order[i - 1]], names[order[i]]) <= 0);
+            }
+        }
+    }
+}
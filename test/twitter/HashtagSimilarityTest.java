@@ -0,0 +1,159 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HashtagSimilarityTest {
+
+    /*
+     * Testing strategy:
+     *   authors: no hashtags, identical, overlapping and disjoint hashtag sets,
+     *            mixed case
+     *   threshold: 1, between 0 and 1
+     *   buckets: within the size cap, over it (many authors with one shared
+     *            hashtag)
+     *   random corpus compared with all-pairs Jaccard similarity
+     *   guessFollowsGraph with hashtags: mutual edges, no new usernames
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test
+    public void testSmallCorpus() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Alyssa", "#rivest #talk", d1),
+                new Tweet(2, "bbitdiddle", "#talk at 3", d1),
+                new Tweet(3, "bbitdiddle", "#RIVEST", d1),
+                new Tweet(4, "ernie", "#talk #hype #mit", d1),
+                new Tweet(5, "bert", "no tags", d1));
+
+        List<String[]> identical = new HashtagSimilarity(1.0).similarAuthors(tweets);
+        assertEquals("expected one identical pair", 1, identical.size());
+        assertArrayEquals("expected pair", new String[] { "alyssa", "bbitdiddle" }, identical.get(0));
+
+        List<String[]> overlapping = new HashtagSimilarity(0.25).similarAuthors(tweets);
+        assertEquals("expected every pair of hashtag users", 3, overlapping.size());
+        assertArrayEquals("expected sorted pairs", new String[] { "alyssa", "ernie" }, overlapping.get(1));
+    }
+
+    @Test
+    public void testMatchesAllPairs() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int author = 0; author < 400; author++) {
+            // authors in the same group of ten share most of their hashtags
+            int group = author / 10;
+            for (int t = 0; t < 6; t++) {
+                int tag = random.nextInt(5) < 4 ? group * 100 + random.nextInt(6) : random.nextInt(100000);
+                tweets.add(new Tweet(tweets.size(), "user" + author, "#tag" + tag, d1));
+            }
+        }
+        double threshold = 0.5;
+        Set<String> found = new HashSet<>();
+        for (String[] pair : new HashtagSimilarity(threshold).similarAuthors(tweets)) {
+            assertTrue("expected ordered pair", pair[0].compareTo(pair[1]) < 0);
+            found.add(pair[0] + " " + pair[1]);
+        }
+
+        Map<String, Set<String>> hashtags = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            hashtags.computeIfAbsent(tweet.getAuthor(), a -> new HashSet<>())
+                    .addAll(Arrays.asList(MentionScanner.scanHashtags(tweet.getText())));
+        }
+        int expected = 0;
+        int missed = 0;
+        for (String a : hashtags.keySet()) {
+            for (String b : hashtags.keySet()) {
+                if (a.compareTo(b) >= 0) {
+                    continue;
+                }
+                Set<String> common = new HashSet<>(hashtags.get(a));
+                common.retainAll(hashtags.get(b));
+                Set<String> union = new HashSet<>(hashtags.get(a));
+                union.addAll(hashtags.get(b));
+                double similarity = (double) common.size() / union.size();
+                boolean reported = found.remove(a + " " + b);
+                if (similarity >= threshold) {
+                    expected++;
+                    if (!reported) {
+                        missed++;
+                    }
+                }
+            }
+        }
+        assertTrue("expected only pairs above the threshold: " + found, found.isEmpty());
+        assertTrue("expected similar pairs in corpus", expected > 100);
+        assertTrue("expected few missed pairs: " + missed + " of " + expected, missed * 20 <= expected);
+    }
+
+    @Test
+    public void testGuessFollowsGraphWithHashtags() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "#rivest talk with @ernie", d1),
+                new Tweet(2, "BBitdiddle", "#rivest", d1),
+                new Tweet(3, "ernie", "no tags", d1));
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets, 0.9);
+        assertEquals("expected mention and hashtag followees",
+                new HashSet<>(Arrays.asList("ernie", "bbitdiddle")), followsGraph.get("alyssa"));
+        assertEquals("expected hashtag edge back", new HashSet<>(Arrays.asList("alyssa")),
+                followsGraph.get("bbitdiddle"));
+        assertEquals("expected only authors and mentions", new HashSet<>(Arrays.asList("alyssa", "bbitdiddle", "ernie")),
+                followsGraph.keySet());
+    }
+
+    @Test(timeout = 10_000)
+    public void testDegenerateBucketSkipped() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int author = 0; author < 5000; author++) {
+            tweets.add(new Tweet(tweets.size(), "fan" + author, "#popular", d1));
+        }
+        tweets.add(new Tweet(tweets.size(), "alyssa", "#rivest #talk #popular", d1));
+        tweets.add(new Tweet(tweets.size(), "bbitdiddle", "#rivest #talk #popular", d1));
+
+        List<String[]> similar = new HashtagSimilarity(0.9).similarAuthors(tweets);
+        assertEquals("expected only the pair outside the oversized bucket", 1, similar.size());
+        assertArrayEquals("expected pair", new String[] { "alyssa", "bbitdiddle" }, similar.get(0));
+
+        List<Tweet> few = tweets.subList(0, 3);
+        assertEquals("expected small identical buckets paired", 3,
+                new HashtagSimilarity(1.0).similarAuthors(few).size());
+        assertTrue("expected buckets over the cap skipped",
+                new HashtagSimilarity(1.0, 128, 1, 2).similarAuthors(few).isEmpty());
+    }
+
+    @Test
+    public void testRepeatedHashtagsCountedOnce() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "#rivest #rivest #talk", d1),
+                new Tweet(2, "Alyssa", "#talk", d1),
+                new Tweet(3, "bbitdiddle", "#talk #rivest", d1),
+                new Tweet(4, "ernie", "#talk", d1));
+        List<String[]> similar = new HashtagSimilarity(1.0).similarAuthors(tweets);
+        assertEquals("expected only the identical sets paired", 1, similar.size());
+        assertArrayEquals("expected pair", new String[] { "alyssa", "bbitdiddle" }, similar.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTinyBucketSize() {
+        new HashtagSimilarity(0.5, 16, 8, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroThreshold() {
+        new HashtagSimilarity(0);
+    }
+}
@@ -0,0 +1,70 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test
+    public void testEmpty() {
+        assertEquals("expected zero", 0, new HyperLogLog(HyperLogLog.DEFAULT_PRECISION).estimate());
+    }
+
+    @Test
+    public void testSmallCardinalityIsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < 100; i++) {
+                sketch.add("user" + i);
+            }
+        }
+        assertEquals("expected about 100", 100, sketch.estimate(), 2);
+    }
+
+    @Test
+    public void testLargeCardinalityWithinError() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = 0; i < 200000; i++) {
+            sketch.add("user" + i);
+        }
+        assertEquals("expected within 3% of 200000", 200000, sketch.estimate(), 6000);
+    }
+
+    @Test
+    public void testMergeShards() {
+        HyperLogLog shard1 = new HyperLogLog(12);
+        HyperLogLog shard2 = new HyperLogLog(12);
+        for (int i = 0; i < 30000; i++) {
+            shard1.add("user" + i);
+            shard2.add("user" + (i + 15000));
+        }
+        shard1.merge(shard2);
+        assertEquals("expected union of about 45000", 45000, shard1.estimate(), 45000 * 0.05);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeRequiresSamePrecision() {
+        new HyperLogLog(10).merge(new HyperLogLog(12));
+    }
+
+    @Test
+    public void testExtractSketches() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tweets.add(new Tweet(i, (i % 2 == 0 ? "User" : "user") + (i % 50), "hi @Friend" + i + " and @FRIEND" + i, d1));
+        }
+        assertEquals("expected about 1000 mentioned users",
+                Extract.getMentionedUsers(tweets).size(), Extract.sketchMentionedUsers(tweets, 12).estimate(), 30);
+        assertEquals("expected about 50 case-folded authors", 50, Extract.sketchAuthors(tweets, 12).estimate(), 2);
+    }
+}
@@ -0,0 +1,103 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Pattern MENTION = Pattern.compile("(?<!\\w)@([a-zA-Z0-9_]+)(?!\\w)");
+
+    /*
+     * Reference semantics: the regex Extract.getMentionedUsers was originally
+     * written with.
+     */
+    private static List<String> regexMentions(String text) {
+        Set<String> mentions = new LinkedHashSet<>();
+        Matcher matcher = MENTION.matcher(text);
+        while (matcher.find()) {
+            mentions.add(matcher.group(1).toLowerCase());
+        }
+        return new ArrayList<>(mentions);
+    }
+
+    @Test
+    public void testBoundaries() {
+        assertEquals("expected mentions", Arrays.asList("alyssa", "valid_user", "x_"),
+                Arrays.asList(MentionScanner.scan("@Alyssa: mail bitdiddle@mit.edu or @valid_user! @ @@x_ ")));
+        assertEquals("expected second @ after @ to count", Arrays.asList("x_"),
+                Arrays.asList(MentionScanner.scan("@@x_")));
+        assertEquals("expected hyphen to end a mention", Arrays.asList("ben"),
+                Arrays.asList(MentionScanner.scan("hi @ben-bit @BEN")));
+        assertEquals("expected no mentions", 0, MentionScanner.scan("no mentions here@").length);
+    }
+
+    @Test
+    public void testHashtags() {
+        assertEquals("expected hashtags", Arrays.asList("hype", "mit6005"),
+                Arrays.asList(MentionScanner.scanHashtags("#Hype for a#b, #MIT6005 and #hype # @alyssa")));
+        assertEquals("expected no hashtags", 0, MentionScanner.scanHashtags("@alyssa").length);
+    }
+
+    @Test
+    public void testMatchesRegex() {
+        Random random = new Random(6005);
+        String alphabet = "@@@aZ_9-. \u00e9\u20ac";
+        for (int trial = 0; trial < 10000; trial++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(16); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertEquals("expected same as regex for " + text, regexMentions(text.toString()),
+                    Arrays.asList(MentionScanner.scan(text)));
+
+            // surrounded by username characters that must not leak into the range
+            byte[] utf8 = ("a" + text + "b").getBytes(StandardCharsets.UTF_8);
+            assertEquals("expected UTF-8 scan same as regex for " + text, regexMentions(text.toString()),
+                    Arrays.asList(MentionScanner.scan(utf8, 1, utf8.length - 2)));
+        }
+    }
+
+    @Test
+    public void testCacheReusesScan() {
+        List<Tweet> tweets = Arrays.asList(new Tweet(1, "user", "hello @alyssa", d1),
+                new Tweet(2, "user", "no mentions", d1));
+        MentionCache cache = new MentionCache(tweets);
+        assertEquals("expected one entry per tweet", 2, cache.size());
+        String[] first = cache.mentionsOf(0);
+        assertEquals("expected mentions", Arrays.asList("alyssa"), Arrays.asList(first));
+        assertSame("expected cached array", first, cache.mentionsOf(0));
+        assertEquals("expected no mentions", 0, cache.mentionsOf(1).length);
+        assertEquals("expected one hit", 1, cache.hits());
+        assertEquals("expected two misses", 2, cache.misses());
+    }
+
+    @Test
+    public void testCacheSharedByPasses() {
+        List<Tweet> tweets = Arrays.asList(new Tweet(1, "alyssa", "hello @BBitdiddle", d1),
+                new Tweet(2, "bbitdiddle", "@alyssa hi", d1));
+        MentionCache cache = new MentionCache(tweets);
+        assertEquals("expected same users as uncached pass", Extract.getMentionedUsers(tweets),
+                Extract.getMentionedUsers(cache));
+        assertEquals("expected same graph as uncached pass", SocialNetwork.guessFollowsGraph(tweets),
+                SocialNetwork.guessFollowsGraph(cache));
+        assertEquals("expected each text scanned once", 2, cache.misses());
+        assertEquals("expected second pass answered from the cache", 2, cache.hits());
+    }
+}
@@ -0,0 +1,127 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /*
+     * Testing strategy:
+     *   graph: empty, star, cycle, users who follow nobody, large random
+     *   pool: one thread, several threads
+     *   influencers(k): ties, k = 0, k < n, k >= n
+     */
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testEmpty() {
+        PageRank rank = PageRank.compute(UserGraph.fromMap(new HashMap<>()));
+        assertTrue("expected no influencers", rank.influencers(3).isEmpty());
+        assertEquals("expected no score", 0, rank.score("alyssa"), 0);
+    }
+
+    @Test
+    public void testStar() {
+        Map<String, Set<String>> network = new HashMap<>();
+        for (String user : Arrays.asList("b", "c", "d")) {
+            network.put(user, new HashSet<>(Arrays.asList("hub")));
+        }
+        PageRank rank = PageRank.compute(UserGraph.fromMap(network));
+        assertTrue("expected convergence", rank.converged());
+        assertEquals("expected hub first, then ties alphabetically",
+                Arrays.asList("hub", "b", "c", "d"), rank.influencers());
+        assertEquals("expected top 1", Arrays.asList("hub"), SocialNetwork.influencersByPageRank(network, 1));
+        assertTrue("expected nobody", rank.influencers(0).isEmpty());
+        assertEquals("expected scores to sum to 1", 1.0, sum(rank.scores()), EPSILON);
+        assertEquals("expected case-insensitive lookup", rank.score("hub"), rank.score("HUB"), 0);
+    }
+
+    @Test
+    public void testCycleIsUniform() {
+        Map<String, Set<String>> network = new HashMap<>();
+        network.put("a", new HashSet<>(Arrays.asList("b")));
+        network.put("b", new HashSet<>(Arrays.asList("c")));
+        network.put("c", new HashSet<>(Arrays.asList("a")));
+        PageRank rank = PageRank.compute(UserGraph.fromMap(network));
+        for (String user : network.keySet()) {
+            assertEquals("expected uniform score", 1.0 / 3, rank.score(user), EPSILON);
+        }
+    }
+
+    @Test
+    public void testMatchesSequentialPowerIteration() {
+        Random random = new Random(6005);
+        int n = 20000;
+        Map<String, Set<String>> network = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            Set<String> followees = new HashSet<>();
+            for (int e = random.nextInt(5); e > 0; e--) {
+                // skew toward low ids so some users are much more followed
+                followees.add("u" + (int) (n * Math.pow(random.nextDouble(), 3)));
+            }
+            followees.remove("u" + u);
+            network.put("u" + u, followees);
+        }
+        UserGraph graph = UserGraph.fromMap(network);
+        double[] expected = naivePageRank(graph, PageRank.DEFAULT_DAMPING, 200);
+
+        for (int threads : new int[] { 1, 4 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                PageRank rank = PageRank.compute(graph, PageRank.DEFAULT_DAMPING, 1e-12, 500, pool);
+                assertTrue("expected convergence", rank.converged());
+                double[] scores = rank.scores();
+                for (int u = 0; u < graph.userCount(); u++) {
+                    assertEquals("expected same score", expected[u], scores[u], 1e-10);
+                }
+                assertEquals("expected scores to sum to 1", 1.0, sum(scores), EPSILON);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static double[] naivePageRank(UserGraph graph, double damping, int iterations) {
+        int n = graph.userCount();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int i = 0; i < iterations; i++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                if (graph.outDegree(u) == 0) {
+                    dangling += rank[u];
+                }
+                for (int v : graph.followees(u)) {
+                    next[v] += damping * rank[u] / graph.outDegree(u);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (1 - damping) / n + damping * dangling / n;
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+    private static double sum(double[] values) {
+        double total = 0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
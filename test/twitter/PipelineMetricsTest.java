@@ -0,0 +1,203 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PipelineMetricsTest {
+
+    /*
+     * Testing strategy:
+     *   histogram: bucket bounds across magnitudes, quantiles of a known
+     *              distribution, empty
+     *   metrics: enabled, disabled; work that returns, work that throws
+     *   counters: tweets with ASCII and non-ASCII text, mention cache lookups,
+     *             throughput before and after the fetch stage
+     *   exposure: registration before and after stages run, unregistration,
+     *             JSON report in memory and in a file
+     */
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testBuckets() {
+        int previous = -1;
+        for (long v = 0; v < 100_000; v += 1 + v / 50) {
+            int bucket = StageMetrics.bucket(v);
+            assertTrue("expected nondecreasing buckets", bucket >= previous);
+            long upper = StageMetrics.bucketUpperBound(bucket);
+            assertTrue("expected " + v + " within its bucket, got " + upper, upper >= v && upper <= v + v / 8);
+            previous = bucket;
+        }
+        assertEquals("expected last bucket for the largest latency",
+                StageMetrics.BUCKET_COUNT - 1, StageMetrics.bucket(Long.MAX_VALUE));
+        assertEquals("expected last bucket to end at the largest latency",
+                Long.MAX_VALUE, StageMetrics.bucketUpperBound(StageMetrics.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void testQuantiles() {
+        StageMetrics stage = new StageMetrics("stage");
+        assertEquals("expected 0 with no runs", 0, stage.quantileNanos(0.5));
+        for (long micros = 1; micros <= 1000; micros++) {
+            stage.record(micros * 1000, 10);
+        }
+        assertEquals("expected count", 1000, stage.getCount());
+        assertEquals("expected median", 0.5, stage.getP50Millis(), 0.5 / 8);
+        assertEquals("expected 99th percentile", 0.99, stage.getP99Millis(), 0.99 / 8);
+        assertEquals("expected max", 1.0, stage.getMaxMillis(), 1e-9);
+        assertEquals("expected mean", 0.5005, stage.getMeanMillis(), 1e-9);
+        assertEquals("expected total", 500.5, stage.getTotalMillis(), 1e-9);
+        assertEquals("expected allocation", 10_000, stage.getCallerThreadAllocatedBytes());
+        assertEquals("expected max for quantile 1", 1_000_000, stage.quantileNanos(1));
+
+        stage.record(5, -1);
+        assertEquals("expected unknown allocation", -1, stage.getCallerThreadAllocatedBytes());
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        PipelineMetrics metrics = PipelineMetrics.disabled();
+        assertFalse("expected disabled", metrics.isEnabled());
+        assertEquals("expected work's result", "done", metrics.time("stage", () -> "done"));
+        metrics.countTweets(Arrays.asList(new Tweet(1, "alyssa", "text", d1)));
+        assertTrue("expected no stages", metrics.stageNames().isEmpty());
+        assertEquals("expected no tweets counted", 0, metrics.getTweets());
+        metrics.watch(new MentionCache(Arrays.asList(new Tweet(1, "alyssa", "@bbitdiddle", d1))));
+        assertEquals("expected no cache lookups", 0, metrics.getMentionCacheHits());
+    }
+
+    @Test
+    public void testTime() {
+        PipelineMetrics metrics = PipelineMetrics.create();
+        assertEquals("expected work's result", Integer.valueOf(42), metrics.time("first", () -> 42));
+        metrics.time("second", () -> new int[1000]);
+        metrics.time("first", () -> 43);
+        try {
+            metrics.time("failing", () -> {
+                throw new IOException("failed");
+            });
+            fail("expected exception");
+        } catch (IOException ioe) {
+            assertEquals("expected work's exception", "failed", ioe.getMessage());
+        }
+        assertEquals("expected stages in order of first run, without failures",
+                Arrays.asList("first", "second"), metrics.stageNames());
+        assertEquals("expected two runs", 2, metrics.stage("first").getCount());
+        assertNotEquals("expected some allocation, or -1 if unmeasurable",
+                0, metrics.stage("second").getCallerThreadAllocatedBytes());
+    }
+
+    @Test
+    public void testCounters() {
+        PipelineMetrics metrics = PipelineMetrics.create();
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tweets.add(new Tweet(0x6A09E667F3BCC908L + i, "alyssa", "caf\u00e9 @bbitdiddle", d1));
+        }
+        metrics.countTweets(tweets);
+        assertEquals("expected tweets", 100, metrics.getTweets());
+        assertEquals("expected UTF-8 bytes", 100 * 17, metrics.getTextBytes());
+
+        assertEquals("expected no cache lookups before a cache is watched", 0, metrics.getMentionCacheHits());
+        MentionCache cache = new MentionCache(tweets);
+        metrics.watch(cache);
+        Extract.getMentionedUsers(cache);
+        SocialNetwork.guessFollowsGraph(cache);
+        assertEquals("expected second scan answered from the cache", 100, metrics.getMentionCacheHits());
+        assertEquals("expected first scan to miss", 100, metrics.getMentionCacheMisses());
+        assertEquals("expected hit rate", 0.5, metrics.getMentionCacheHitRate(), 0.01);
+    }
+
+    @Test
+    public void testThroughputOverFetchTime() throws InterruptedException {
+        PipelineMetrics metrics = PipelineMetrics.create();
+        metrics.countTweets(Arrays.asList(new Tweet(1, "alyssa", "text", d1)));
+        assertEquals("expected no throughput before the fetch stage runs", 0, metrics.getTweetsPerSecond(), 0);
+        metrics.time(PipelineMetrics.FETCH_STAGE, () -> {
+            Thread.sleep(20);
+            return null;
+        });
+        double tweetsPerSecond = metrics.getTweetsPerSecond();
+        assertTrue("expected at most 1 tweet per 20 ms, got " + tweetsPerSecond,
+                tweetsPerSecond > 0 && tweetsPerSecond <= 50);
+        Thread.sleep(20);
+        assertEquals("expected throughput not to decay after the fetch", tweetsPerSecond,
+                metrics.getTweetsPerSecond(), 0);
+        assertEquals("expected bytes at 4 times the tweet rate", 4 * tweetsPerSecond,
+                metrics.getTextBytesPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        PipelineMetrics metrics = PipelineMetrics.create();
+        metrics.time("fetch", () -> 1);
+        metrics.register(server);
+        metrics.time("influencers", () -> 2);
+
+        ObjectName pipeline = new ObjectName(PipelineMetrics.DOMAIN + ":type=Pipeline");
+        assertEquals("expected pipeline attribute", 0L, server.getAttribute(pipeline, "Tweets"));
+        assertEquals("expected stage that ran before registration", 1L,
+                server.getAttribute(PipelineMetrics.stageName("fetch"), "Count"));
+        assertEquals("expected stage that ran after registration", 1L,
+                server.getAttribute(PipelineMetrics.stageName("influencers"), "Count"));
+
+        metrics.unregister();
+        assertFalse("expected pipeline unregistered", server.isRegistered(pipeline));
+        assertFalse("expected stages unregistered", server.isRegistered(PipelineMetrics.stageName("fetch")));
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        PipelineMetrics metrics = PipelineMetrics.create();
+        metrics.countTweets(Arrays.asList(new Tweet(1, "alyssa", "text", d1)));
+        metrics.time("timespan", () -> 1);
+        metrics.time("followsGraph", () -> 2);
+
+        Path file = folder.getRoot().toPath().resolve("metrics.json");
+        metrics.writeReport(file);
+        JsonObject report;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            report = Json.createReader(reader).readObject();
+        }
+        assertEquals("expected tweets", 1, report.getJsonNumber("tweets").longValue());
+        assertEquals("expected text bytes", 4, report.getJsonNumber("textBytes").longValue());
+        JsonArray stages = report.getJsonArray("stages");
+        assertEquals("expected two stages", 2, stages.size());
+        assertEquals("expected first stage", "timespan", stages.getJsonObject(0).getString("name"));
+        assertEquals("expected second stage", "followsGraph", stages.getJsonObject(1).getString("name"));
+        assertEquals("expected one run", 1, stages.getJsonObject(1).getJsonNumber("count").longValue());
+        assertTrue("expected percentiles", stages.getJsonObject(0).containsKey("p99Millis"));
+    }
+}
@@ -0,0 +1,204 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import twitter.StageGraph.Stage;
+
+public class StageGraphTest {
+
+    /*
+     * Testing strategy:
+     *   shape: single stage, chain, fan-out, fan-in of two stages
+     *   parallelism: 1, > 1; StageGraph.executor, invalid parallelism
+     *   stage: returns, throws, depends on a stage that throws
+     *   metrics: disabled, enabled
+     */
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    private ExecutorService executor(int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        executors.add(executor);
+        return executor;
+    }
+
+    @After
+    public void shutDown() {
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testChain() {
+        StageGraph graph = new StageGraph(executor(1));
+        Stage<Integer> source = graph.add("source", () -> 20);
+        Stage<Integer> doubled = graph.add("doubled", source, n -> n * 2);
+        Stage<String> sum = graph.add("sum", source, doubled, (a, b) -> "sum " + (a + b + 2));
+        assertEquals("expected result of the last stage", "sum 62", sum.join());
+        assertEquals("expected result of an inner stage", Integer.valueOf(40), doubled.join());
+        assertEquals("expected name", "doubled", doubled.name());
+        assertTrue("expected finished", source.isDone());
+    }
+
+    @Test
+    public void testSharedInputComputedOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        StageGraph graph = new StageGraph(executor(2));
+        Stage<Integer> source = graph.add("source", () -> runs.incrementAndGet());
+        List<Stage<Integer>> readers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int offset = i;
+            readers.add(graph.add("reader" + i, source, n -> n + offset));
+        }
+        for (int i = 0; i < readers.size(); i++) {
+            assertEquals("expected source's result plus offset", Integer.valueOf(1 + i), readers.get(i).join());
+        }
+        assertEquals("expected source to run once", 1, runs.get());
+    }
+
+    @Test(timeout = 10_000)
+    public void testIndependentStagesConcurrent() {
+        // each of the two stages waits for the other to start, so the graph
+        // finishes only if they run at the same time
+        CountDownLatch started = new CountDownLatch(2);
+        StageGraph graph = new StageGraph(executor(2));
+        Stage<String> source = graph.add("source", () -> "tweets");
+        Stage<Boolean> first = graph.add("first", source, s -> await(started));
+        Stage<Boolean> second = graph.add("second", source, s -> await(started));
+        assertTrue("expected first stage to see the second start", first.join());
+        assertTrue("expected second stage to see the first start", second.join());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            throw new AssertionError(ie);
+        }
+    }
+
+    @Test
+    public void testDownstreamWaitsForInput() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        StageGraph graph = new StageGraph(executor(3));
+        Stage<Integer> slow = graph.add("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ie) {
+                throw new AssertionError(ie);
+            }
+            order.add("slow");
+            return 1;
+        });
+        Stage<Integer> after = graph.add("after", slow, n -> {
+            order.add("after");
+            return n + 1;
+        });
+        Thread.sleep(50);
+        assertFalse("expected dependent stage not to start before its input", after.isDone());
+        release.countDown();
+        assertEquals("expected dependent's result", Integer.valueOf(2), after.join());
+        assertEquals("expected input before dependent", Arrays.asList("slow", "after"), order);
+    }
+
+    @Test
+    public void testFailurePropagates() {
+        AtomicInteger dependentRuns = new AtomicInteger();
+        StageGraph graph = new StageGraph(executor(2));
+        Stage<Integer> failing = graph.add("failing", () -> {
+            throw new IllegalStateException("no tweets");
+        });
+        Stage<Integer> dependent = graph.add("dependent", failing, n -> dependentRuns.incrementAndGet());
+        Stage<Integer> independent = graph.add("independent", () -> 7);
+        try {
+            dependent.join();
+            fail("expected exception");
+        } catch (IllegalStateException ise) {
+            assertEquals("expected the failing stage's exception", "no tweets", ise.getMessage());
+        }
+        assertEquals("expected dependent stage not to run", 0, dependentRuns.get());
+        assertEquals("expected independent stage unaffected", Integer.valueOf(7), independent.join());
+    }
+
+    @Test
+    public void testExecutorLeavesParallelStreamsOnCommonPool() {
+        ExecutorService executor = StageGraph.executor(1);
+        executors.add(executor);
+        StageGraph graph = new StageGraph(executor);
+        Stage<Boolean> forkJoinWorker = graph.add("stage",
+                () -> Thread.currentThread() instanceof ForkJoinWorkerThread);
+        Stage<Long> sum = graph.add("sum", forkJoinWorker,
+                worker -> LongStream.rangeClosed(1, 100_000).parallel().sum());
+        assertFalse("expected stage not on a fork-join pool, which would capture its parallel streams",
+                forkJoinWorker.join());
+        assertEquals("expected parallel stream result", 5_000_050_000L, sum.join().longValue());
+    }
+
+    @Test(timeout = 10_000)
+    public void testExecutorBoundsStages() throws InterruptedException {
+        ExecutorService executor = StageGraph.executor(2);
+        executors.add(executor);
+        StageGraph graph = new StageGraph(executor);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Stage<Integer>> stages = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            stages.add(graph.add("stage" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ie) {
+                    throw new AssertionError(ie);
+                }
+                return running.decrementAndGet();
+            }));
+        }
+        for (Stage<Integer> stage : stages) {
+            stage.join();
+        }
+        assertTrue("expected at most 2 stages at once, got " + maxRunning.get(), maxRunning.get() <= 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecutorRequiresPositiveParallelism() {
+        StageGraph.executor(0);
+    }
+
+    @Test
+    public void testMetrics() {
+        PipelineMetrics metrics = PipelineMetrics.create();
+        StageGraph graph = new StageGraph(executor(2), metrics);
+        Stage<Integer> source = graph.add("fetch", () -> 3);
+        Stage<Integer> squared = graph.add("square", source, n -> n * n);
+        assertEquals("expected result", Integer.valueOf(9), squared.join());
+        assertEquals("expected fetch timed once", 1, metrics.stage("fetch").getCount());
+        assertEquals("expected square timed once", 1, metrics.stage("square").getCount());
+        assertEquals("expected stages in order of first run", Arrays.asList("fetch", "square"), metrics.stageNames());
+    }
+}
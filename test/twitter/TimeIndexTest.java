@@ -0,0 +1,63 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeIndexTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "loving this discussion about algorithms", d3);
+
+    @Test
+    public void testInTimespanKeepsInputOrder() {
+        TimeIndex index = TimeIndex.of(Arrays.asList(tweet3, tweet1, tweet2));
+        assertEquals("expected input order", Arrays.asList(tweet3, tweet1, tweet2), index.inTimespan(new Timespan(d1, d3)));
+        assertEquals("expected inclusive endpoints", Arrays.asList(tweet3, tweet2), index.inTimespan(new Timespan(d2, d3)));
+        assertEquals("expected count", 2, index.count(new Timespan(d2, d3)));
+    }
+
+    @Test
+    public void testEmptyRanges() {
+        TimeIndex index = TimeIndex.of(Arrays.asList(tweet1, tweet2));
+        Timespan later = new Timespan(Instant.parse("2016-02-17T13:00:00Z"), Instant.parse("2016-02-17T14:00:00Z"));
+        assertTrue("expected empty list", index.inTimespan(later).isEmpty());
+        assertEquals("expected zero count", 0, index.count(later));
+        assertEquals("expected zero count on empty corpus", 0, TimeIndex.of(new ArrayList<>()).count(later));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        // Random corpus with many duplicate timestamps; compare every query with Filter.inTimespan.
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tweets.add(new Tweet(i, "user", "text", d1.plusMillis(random.nextInt(1000) * 500L)));
+        }
+        TimeIndex index = TimeIndex.of(tweets);
+        TimeIndex storeIndex = TimeIndex.of(TweetStore.of(tweets));
+        for (int query = 0; query < 200; query++) {
+            Instant start = d1.plusMillis(random.nextInt(1100) * 500L - 50_000);
+            Instant end = start.plusMillis(random.nextInt(query % 2 == 0 ? 20 : 1100) * 500L);
+            Timespan timespan = new Timespan(start, end);
+            List<Tweet> expected = Filter.inTimespan(tweets, timespan);
+            assertEquals("expected same as linear scan", expected, index.inTimespan(timespan));
+            assertEquals("expected same from store", expected, storeIndex.inTimespan(timespan));
+            assertEquals("expected count", expected.size(), index.count(timespan));
+        }
+    }
+}
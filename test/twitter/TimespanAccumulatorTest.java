@@ -0,0 +1,74 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimespanAccumulatorTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("1960-02-17T12:00:00.000000001Z");
+
+    @Test
+    public void testEmptyMatchesGetTimespan() {
+        // Both sides are computed from separate reads of "now", so compare the
+        // lengths of the intervals, allowing for a millisecond tick between reads.
+        Timespan expected = Extract.getTimespan(new ArrayList<>());
+        Timespan actual = new TimespanAccumulator().getTimespan();
+        assertEquals("expected same empty-list behavior",
+                expected.getEnd().toEpochMilli() - expected.getStart().toEpochMilli(),
+                actual.getEnd().toEpochMilli() - actual.getStart().toEpochMilli(), 1);
+        assertTrue("expected empty", new TimespanAccumulator().isEmpty());
+    }
+
+    @Test
+    public void testIncrementalBatches() {
+        TimespanAccumulator accumulator = new TimespanAccumulator();
+        accumulator.addAll(Arrays.asList(new Tweet(1, "alyssa", "first", d2)));
+        assertEquals("expected single instant", new Timespan(d2, d2), accumulator.getTimespan());
+        accumulator.addAll(Arrays.asList(new Tweet(2, "alyssa", "second", d1), new Tweet(3, "ben", "third", d3)));
+        assertEquals("expected widened span", new Timespan(d3, d2), accumulator.getTimespan());
+    }
+
+    @Test
+    public void testMerge() {
+        TimespanAccumulator shard1 = new TimespanAccumulator();
+        TimespanAccumulator shard2 = new TimespanAccumulator();
+        TimespanAccumulator empty = new TimespanAccumulator();
+        shard1.add(d1);
+        shard2.add(d3);
+        shard1.merge(shard2);
+        shard1.merge(empty);
+        assertEquals("expected merged span", new Timespan(d3, d1), shard1.getTimespan());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        TimespanAccumulator accumulator = new TimespanAccumulator();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    accumulator.add(d1.plusSeconds(i * 4 + offset));
+                    accumulator.getTimespan(); // must never see start > end
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("expected full span", new Timespan(d1, d1.plusSeconds(39999)), accumulator.getTimespan());
+    }
+}
@@ -0,0 +1,75 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TrendingMentionsTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static int nextId = 0;
+
+    private static Tweet mention(Instant timestamp, String text) {
+        return new Tweet(nextId++, "author", text, timestamp);
+    }
+
+    @Test
+    public void testTopKOrder() {
+        TrendingMentions trends = new TrendingMentions(60, 10);
+        for (int i = 0; i < 5; i++) {
+            trends.add(mention(d1, "@alyssa"));
+        }
+        for (int i = 0; i < 3; i++) {
+            trends.add(mention(d1.plusSeconds(90), "@BBitdiddle @bbitdiddle"));
+        }
+        trends.add(mention(d1.plusSeconds(120), "@ben and @alyssa"));
+        trends.add(mention(d1.plusSeconds(120), "@ann"));
+
+        assertEquals("expected descending counts, ties alphabetical",
+                Arrays.asList("alyssa", "bbitdiddle", "ann", "ben"), trends.topK(10));
+        assertEquals("expected top 2", Arrays.asList("alyssa", "bbitdiddle"), trends.topK(2));
+        assertEquals("expected count, one per tweet", 3, trends.estimate("BBITDIDDLE"));
+    }
+
+    @Test
+    public void testOldBucketsExpire() {
+        TrendingMentions trends = new TrendingMentions(60, 5);
+        for (int i = 0; i < 10; i++) {
+            trends.add(mention(d1, "@old_news"));
+        }
+        trends.add(mention(d1.plusSeconds(240), "@fresh"));
+        assertEquals("expected both in window", Arrays.asList("old_news", "fresh"), trends.topK(5));
+
+        trends.add(mention(d1.plusSeconds(300), "@fresh"));
+        assertEquals("expected old bucket expired", Arrays.asList("fresh"), trends.topK(5));
+        assertEquals("expected expired count", 0, trends.estimate("old_news"));
+
+        trends.add(mention(d1, "@old_news"));
+        assertEquals("expected tweet older than window ignored", Arrays.asList("fresh"), trends.topK(5));
+
+        trends.advance(d1.plusSeconds(3600));
+        assertTrue("expected empty window", trends.topK(5).isEmpty());
+    }
+
+    @Test
+    public void testBoundedCandidates() {
+        TrendingMentions trends = new TrendingMentions(60, 10, 4, 1024, 3);
+        for (int user = 0; user < 100; user++) {
+            for (int i = 0; i <= user % 10; i++) {
+                trends.add(mention(d1, "@user" + user));
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            trends.add(mention(d1, "@celebrity"));
+        }
+        assertEquals("expected heavy hitter first", "celebrity", trends.topK(3).get(0));
+        assertEquals("expected bounded candidates", 3, trends.topK(10).size());
+    }
+}
@@ -0,0 +1,130 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.json.JsonException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TweetFileReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /*
+     * @return JSON for a tweet with the given id, including nested structures
+     *         and escaped braces in strings to exercise the boundary scanner.
+     */
+    private static String tweetJson(int id) {
+        return "{\"id\": " + id + ", \"user\": {\"screen_name\": \"user" + (id % 7) + "\"},"
+                + " \"text\": \"tweet {" + id + "} \\\"quoted]\\\" caf\u00e9\","
+                + " \"entities\": [{\"x\": [1, 2]}],"
+                + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    }
+
+    private static List<String> tweetsJson(int from, int to) {
+        List<String> tweets = new ArrayList<>();
+        for (int id = from; id < to; id++) {
+            tweets.add(tweetJson(id));
+        }
+        return tweets;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void assertIds(int from, int to, List<Tweet> tweets) {
+        assertEquals("expected tweet count", to - from, tweets.size());
+        for (int i = 0; i < tweets.size(); i++) {
+            assertEquals("expected tweets in input order", from + i, tweets.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testJsonArraySplitIntoManyChunks() throws IOException {
+        Path file = write("tweets.json", "[\n" + String.join(",\n", tweetsJson(0, 500)) + "\n]\n");
+        List<Tweet> tweets = TweetFileReader.readTweets(Arrays.asList(file), ForkJoinPool.commonPool(), 1000);
+        assertIds(0, 500, tweets);
+        assertEquals("expected text preserved", "tweet {3} \"quoted]\" caf\u00e9", tweets.get(3).getText());
+        assertEquals("expected author", "user3", tweets.get(3).getAuthor());
+    }
+
+    @Test
+    public void testNdjsonSplitIntoManyChunks() throws IOException {
+        Path file = write("tweets.ndjson", String.join("\r\n", tweetsJson(0, 500)) + "\n\n");
+        List<Tweet> tweets = TweetFileReader.readTweets(Arrays.asList(file), ForkJoinPool.commonPool(), 1000);
+        assertIds(0, 500, tweets);
+    }
+
+    @Test
+    public void testLineLongerThanChunk() throws IOException {
+        Path file = write("tweets.jsonl", String.join("\n", tweetsJson(0, 20)));
+        List<Tweet> tweets = TweetFileReader.readTweets(Arrays.asList(file), ForkJoinPool.commonPool(), 16);
+        assertIds(0, 20, tweets);
+    }
+
+    @Test
+    public void testEmptyFiles() throws IOException {
+        assertTrue("expected no tweets", TweetFileReader.readTweetsFromFile(write("empty.json", "")).isEmpty());
+        assertTrue("expected no tweets", TweetFileReader.readTweetsFromFile(write("array.json", " [ ] ")).isEmpty());
+    }
+
+    @Test
+    public void testDirectoryInFileNameOrder() throws IOException {
+        write("b.ndjson", String.join("\n", tweetsJson(10, 20)));
+        write("a.json", "[" + String.join(",", tweetsJson(0, 10)) + "]");
+        write("c.jsonl", String.join("\n", tweetsJson(20, 30)));
+        write("notes.txt", "not tweets");
+        assertIds(0, 30, TweetFileReader.readTweetsFromDirectory(folder.getRoot().toPath()));
+    }
+
+    /*
+     * Assert that reading a file with the given content fails.
+     */
+    private void assertMalformed(String content) throws IOException {
+        Path file = write("malformed.json", content);
+        try {
+            TweetFileReader.readTweets(Arrays.asList(file), ForkJoinPool.commonPool(), 1000);
+            fail("expected JsonException for " + content);
+        } catch (JsonException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMalformedArrays() throws IOException {
+        String tweet = tweetJson(0);
+        assertMalformed("[" + tweet + ", 42]");
+        assertMalformed("[\"text\", " + tweet + "]");
+        assertMalformed("[[" + tweet + "]]");
+        assertMalformed("[" + tweet + " " + tweet + "]");
+        assertMalformed("[" + tweet + ",, " + tweet + "]");
+        assertMalformed("[" + tweet + ",]");
+        assertMalformed("[,]");
+        assertMalformed("[" + tweet);
+        assertMalformed("[" + tweet + "] x");
+        assertMalformed("[" + tweet + "][]");
+    }
+
+    @Test
+    public void testPrettyPrintedObjectRejected() throws IOException {
+        assertMalformed(tweetJson(0).replace(", ", ",\n  "));
+    }
+}
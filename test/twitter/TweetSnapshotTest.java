@@ -0,0 +1,89 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TweetSnapshotTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.123456789Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+                new Tweet(-2, "bbitdiddle", "caf\u00e9 \ud83d\ude00 #hype", d2),
+                new Tweet(Long.MAX_VALUE, "Alyssa", "", d1),
+                new Tweet(4, "alyssa", "rivest talk in 30 minutes", d2));
+        Path file = folder.newFile("tweets.snap").toPath();
+        TweetSnapshotWriter.write(tweets, file);
+
+        try (TweetSnapshotReader snapshot = TweetSnapshotReader.open(file)) {
+            assertEquals("expected size", 4, snapshot.size());
+            for (int i = 0; i < tweets.size(); i++) {
+                Tweet expected = tweets.get(i);
+                Tweet actual = snapshot.asList().get(i);
+                assertEquals("expected id", expected.getId(), actual.getId());
+                assertEquals("expected author case preserved", expected.getAuthor(), actual.getAuthor());
+                assertEquals("expected text", expected.getText(), actual.getText());
+                assertEquals("expected timestamp", expected.getTimestamp(), actual.getTimestamp());
+            }
+            assertSame("expected deduplicated authors", snapshot.getAuthor(0), snapshot.getAuthor(3));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Path file = folder.newFile("empty.snap").toPath();
+        TweetSnapshotWriter.write(new ArrayList<>(), file);
+        try (TweetSnapshotReader snapshot = TweetSnapshotReader.open(file)) {
+            assertTrue("expected empty list", snapshot.asList().isEmpty());
+        }
+    }
+
+    @Test
+    public void testOnlyEmptyTexts() throws IOException {
+        Path file = folder.newFile("blank.snap").toPath();
+        TweetSnapshotWriter.write(Arrays.asList(new Tweet(1, "alyssa", "", d1), new Tweet(2, "bbitdiddle", "", d2)),
+                file);
+        try (TweetSnapshotReader snapshot = TweetSnapshotReader.open(file)) {
+            assertEquals("expected empty first text", "", snapshot.getText(0));
+            assertEquals("expected empty last text", "", snapshot.asList().get(1).getText());
+        }
+    }
+
+    @Test
+    public void testEmptyTextAtEnd() throws IOException {
+        Path file = folder.newFile("trailing.snap").toPath();
+        TweetSnapshotWriter.write(Arrays.asList(new Tweet(1, "alyssa", "rivest talk", d1),
+                new Tweet(2, "bbitdiddle", "", d2)), file);
+        try (TweetSnapshotReader snapshot = TweetSnapshotReader.open(file)) {
+            assertEquals("expected first text", "rivest talk", snapshot.getText(0));
+            assertEquals("expected empty text after the last byte", "", snapshot.getText(1));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = folder.newFile("tweets.json").toPath();
+        Files.write(file, "[]".getBytes("UTF-8"));
+        TweetSnapshotReader.open(file);
+    }
+}
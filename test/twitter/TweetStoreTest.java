@@ -0,0 +1,130 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.5Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype @Alyssa", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "caf\u00e9 discussion about algorithms", d3);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+    @Test
+    public void testColumnsRoundTrip() {
+        TweetStore store = TweetStore.of(tweets);
+        assertEquals("expected size", 3, store.size());
+        assertEquals("expected list view", tweets, store.asList());
+        for (int i = 0; i < tweets.size(); i++) {
+            assertEquals("expected author", tweets.get(i).getAuthor(), store.getAuthor(i));
+            assertEquals("expected text", tweets.get(i).getText(), store.getText(i));
+            assertEquals("expected timestamp", tweets.get(i).getTimestamp(), store.getTimestamp(i));
+        }
+        assertEquals("expected exact author dictionary", 3, store.getAuthorCount());
+    }
+
+    @Test
+    public void testManyTextsSpanPages() {
+        TweetStore store = new TweetStore();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 140; i++) {
+            text.append('\u00e9');
+        }
+        for (int i = 0; i < 10000; i++) {
+            store.add(i, "user" + (i % 10), i + text.toString(), i, 0);
+        }
+        assertEquals("expected size", 10000, store.size());
+        assertEquals("expected text", 9999 + text.toString(), store.getText(9999));
+        assertEquals("expected author codes reused", 10, store.getAuthorCount());
+    }
+
+    @Test
+    public void testEmptyFirstText() {
+        TweetStore store = new TweetStore();
+        store.add(1, "alyssa", "", 0, 0);
+        store.add(2, "alyssa", "rivest", 0, 0);
+        assertEquals("expected empty text", "", store.getText(0));
+        assertEquals("expected text", "rivest", store.getText(1));
+        assertEquals("expected empty length", 0, store.textLength(0));
+    }
+
+    @Test
+    public void testEmptyTextAfterFullPage() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < TweetStore.PAGE_SIZE; i++) {
+            text.append('a');
+        }
+        TweetStore store = new TweetStore();
+        store.add(1, "alyssa", text.toString(), 0, 0);
+        store.add(2, "alyssa", "", 0, 0);
+        store.add(3, "alyssa", "rivest", 0, 0);
+        assertEquals("expected full page text", text.toString(), store.getText(0));
+        assertEquals("expected empty text", "", store.getText(1));
+        assertTrue("expected empty text inside a page", store.textOffset(1) <= store.textPage(1).length);
+        assertEquals("expected only the last text to match", 3,
+                Filter.containing(store, Arrays.asList("rivest")).get(0).getId());
+        assertTrue("expected no mentions", Extract.getMentionedUsers(store).isEmpty());
+        assertEquals("expected text", "rivest", store.getText(2));
+    }
+
+    @Test
+    public void testFilterOverloads() {
+        TweetStore store = TweetStore.of(tweets);
+        assertEquals("expected case-insensitive author match", Arrays.asList(tweet1, tweet3),
+                Filter.writtenBy(store, "ALYSSA"));
+        assertEquals("expected tweets in timespan", Arrays.asList(tweet2),
+                Filter.inTimespan(store, new Timespan(d2, Instant.parse("2016-02-17T11:30:00Z"))));
+        assertTrue("expected nanos compared", Filter.inTimespan(store,
+                new Timespan(d1, Instant.parse("2016-02-17T11:00:00Z"))).equals(Arrays.asList(tweet1)));
+        assertEquals("expected same as list containing", Filter.containing(tweets, Arrays.asList("TALK", "CAF\u00c9")),
+                Filter.containing(store, Arrays.asList("TALK", "CAF\u00c9")));
+    }
+
+    @Test
+    public void testExtractOverloads() {
+        TweetStore store = TweetStore.of(Arrays.asList(tweet3, tweet2, tweet1));
+        assertEquals("expected timespan", new Timespan(d1, d3), Extract.getTimespan(store));
+        Set<String> mentioned = Extract.getMentionedUsers(store);
+        assertEquals("expected same as list mentions", Extract.getMentionedUsers(tweets), mentioned);
+    }
+
+    @Test
+    public void testOverloadsAgreeWithLists() {
+        List<Tweet> corpus = new CorpusGenerator.Builder(6005).count(2000).build().generate();
+        TweetStore store = TweetStore.of(corpus);
+        assertEquals("expected same mentions as list", Extract.getMentionedUsers(corpus),
+                Extract.getMentionedUsers(store));
+        List<String> words = Arrays.asList("caf\u00e9", corpus.get(7).getText().split(" ")[0].toUpperCase());
+        assertEquals("expected same tweets containing words as list", fields(Filter.containing(corpus, words)),
+                fields(Filter.containing(store, words)));
+        String author = corpus.get(0).getAuthor().toUpperCase();
+        assertEquals("expected same tweets by author as list, case-insensitively",
+                fields(Filter.writtenBy(corpus, author)), fields(Filter.writtenBy(store, author)));
+    }
+
+    /*
+     * Tweet.equals compares only ids, so compare every field through toString.
+     */
+    private static List<String> fields(List<Tweet> tweets) {
+        List<String> fields = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            fields.add(tweet.toString());
+        }
+        return fields;
+    }
+}
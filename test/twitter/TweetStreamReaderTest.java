@@ -0,0 +1,77 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class TweetStreamReaderTest {
+
+    private static final String FLAT_TWEETS = "["
+            + "{\"id\": 1, \"user.screen_name\": \"alyssa\", \"text\": \"rivest talk\","
+            + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\", \"retweet_count\": 3},"
+            + "{\"id\": \"2\", \"user.screen_name\": \"bbitdiddle\", \"text\": \"@alyssa see you\","
+            + " \"created_at\": \"Wed Feb 17 06:00:00 -0500 2016\", \"favorited\": false}"
+            + "]";
+
+    private static final String NESTED_TWEET = "[{\"id\": 3,"
+            + " \"entities\": {\"hashtags\": [{\"text\": \"hype\"}], \"urls\": []},"
+            + " \"user\": {\"id\": 99, \"screen_name\": \"ben_bit\", \"profile\": {\"text\": \"bio\"}},"
+            + " \"text\": \"#hype\", \"created_at\": \"Wed Feb 17 12:00:00 +0000 2016\"}]";
+
+    @Test
+    public void testReadTweetsFlatKeys() {
+        // Test the flattened key layout produced by the sample server.
+        List<Tweet> tweets = TweetStreamReader.readTweets(new StringReader(FLAT_TWEETS));
+        assertEquals("expected two tweets", 2, tweets.size());
+        assertEquals("expected id", 1, tweets.get(0).getId());
+        assertEquals("expected author", "alyssa", tweets.get(0).getAuthor());
+        assertEquals("expected text", "rivest talk", tweets.get(0).getText());
+        assertEquals("expected timestamp", Instant.parse("2016-02-17T10:00:00Z"), tweets.get(0).getTimestamp());
+        assertEquals("expected string id", 2, tweets.get(1).getId());
+        assertEquals("expected offset applied", Instant.parse("2016-02-17T11:00:00Z"), tweets.get(1).getTimestamp());
+    }
+
+    @Test
+    public void testReadTweetsNestedUserSkipsOtherFields() {
+        // Nested fields named "text" must not override the tweet's own text.
+        List<Tweet> tweets = TweetStreamReader.readTweets(new StringReader(NESTED_TWEET));
+        assertEquals("expected one tweet", 1, tweets.size());
+        assertEquals("expected author", "ben_bit", tweets.get(0).getAuthor());
+        assertEquals("expected text", "#hype", tweets.get(0).getText());
+    }
+
+    @Test
+    public void testIteratorIsLazyAndOrdered() {
+        TweetStreamReader reader = new TweetStreamReader(new StringReader(FLAT_TWEETS));
+        Iterator<Tweet> tweets = reader;
+        assertTrue("expected first tweet", tweets.hasNext());
+        assertEquals("expected first id", 1, tweets.next().getId());
+        assertEquals("expected second id", 2, tweets.next().getId());
+        assertFalse("expected end", tweets.hasNext());
+        reader.close();
+    }
+
+    @Test
+    public void testStreamEmptyArray() {
+        try (Stream<Tweet> tweets = TweetStreamReader.stream(new StringReader("[]"))) {
+            assertTrue("expected no tweets", tweets.collect(Collectors.toList()).isEmpty());
+        }
+    }
+
+    @Test(expected = JsonException.class)
+    public void testMissingFieldRejected() {
+        TweetStreamReader.readTweets(new StringReader("[{\"id\": 1, \"text\": \"no author\"}]"));
+    }
+}
@@ -0,0 +1,193 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class UserDictionaryTest {
+
+    /*
+     * Testing strategy:
+     *   dictionary: empty, one username in several cases, many usernames
+     *               (forcing growth), non-ASCII username, username inside a
+     *               larger text, concurrent interning from several threads,
+     *               lookups concurrent with interning
+     *   id-space operations: MentionScanner.scanIds, Extract.getMentionedUserIds,
+     *               Filter.writtenBy, UserGraph.fromTweets with a shared
+     *               dictionary, compared with their string counterparts
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "Alyssa", "hi @BBitdiddle and @ernie", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "@alyssa @ERNIE @alyssa", d1);
+    private static final Tweet tweet3 = new Tweet(3, "ALYSSA", "no mentions, bert@mit.edu", d1);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        UserDictionary dictionary = new UserDictionary();
+        assertEquals("expected empty", 0, dictionary.size());
+        assertEquals("expected absent", -1, dictionary.id("alyssa"));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        UserDictionary dictionary = new UserDictionary();
+        assertEquals("expected first id", 0, dictionary.intern("Alyssa"));
+        assertEquals("expected next id", 1, dictionary.intern("bbitdiddle"));
+        assertEquals("expected same id in any case", 0, dictionary.intern("ALYSSA"));
+        assertEquals("expected same id in any case", 1, dictionary.id("BBitDiddle"));
+        assertEquals("expected two usernames", 2, dictionary.size());
+        assertEquals("expected lowercase name", "alyssa", dictionary.name(0));
+        assertEquals("expected absent", -1, dictionary.id("alyss"));
+    }
+
+    @Test
+    public void testRange() {
+        UserDictionary dictionary = new UserDictionary();
+        String text = "hi @BBitdiddle!";
+        int id = dictionary.intern(text, 4, 14);
+        assertEquals("expected name of range", "bbitdiddle", dictionary.name(id));
+        assertEquals("expected same id", id, dictionary.id("bbitdiddle"));
+    }
+
+    @Test
+    public void testNonAscii() {
+        UserDictionary dictionary = new UserDictionary();
+        int id = dictionary.intern("Zo\u00cb");
+        assertEquals("expected folded name", "zo\u00eb", dictionary.name(id));
+        assertEquals("expected same id", id, dictionary.id("zo\u00eb"));
+        assertEquals("expected ASCII name distinct", -1, dictionary.id("zoe"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNameUnknownId() {
+        new UserDictionary().name(0);
+    }
+
+    @Test
+    public void testMany() {
+        UserDictionary dictionary = new UserDictionary();
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("expected dense ids", i, dictionary.intern("User" + i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("expected id after growth", i, dictionary.id("user" + i));
+            assertEquals("expected name after growth", "user" + i, dictionary.name(i));
+        }
+        assertEquals("expected all usernames", 5000, dictionary.size());
+    }
+
+    @Test
+    public void testConcurrentIntern() {
+        UserDictionary dictionary = new UserDictionary();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 8).parallel().forEach(thread -> {
+            for (int i = 0; i < 2000; i++) {
+                int id = dictionary.intern((thread % 2 == 0 ? "USER" : "user") + i);
+                seen.add(id + " " + i);
+            }
+        });
+        assertEquals("expected one id per username", 2000, dictionary.size());
+        assertEquals("expected threads to agree on ids", 2000, seen.size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("expected consistent name", "user" + i, dictionary.name(dictionary.id("user" + i)));
+        }
+    }
+
+    @Test
+    public void testLookupsDuringInterning() {
+        UserDictionary dictionary = new UserDictionary();
+        for (int i = 0; i < 100; i++) {
+            dictionary.intern("early" + i);
+        }
+        IntStream.range(0, 4).parallel().forEach(thread -> {
+            for (int i = 0; i < 5000; i++) {
+                if (thread == 0) {
+                    dictionary.intern("late" + i);
+                } else {
+                    int early = i % 100;
+                    assertEquals("expected stable id while the table grows", early, dictionary.id("EARLY" + early));
+                    int late = dictionary.id("late" + i);
+                    assertTrue("expected a late username absent or complete",
+                            late == -1 || dictionary.name(late).equals("late" + i));
+                }
+            }
+        });
+        assertEquals("expected every username", 5100, dictionary.size());
+    }
+
+    @Test
+    public void testScanIds() {
+        UserDictionary dictionary = new UserDictionary();
+        int[] ids = MentionScanner.scanIds("@ernie, @Alyssa and @ERNIE; not@bert", dictionary);
+        assertEquals("expected distinct mentions in order", 2, ids.length);
+        assertEquals("expected first mention", "ernie", dictionary.name(ids[0]));
+        assertEquals("expected second mention", "alyssa", dictionary.name(ids[1]));
+        assertEquals("expected no ids for no mentions", 0,
+                MentionScanner.scanIds("no mentions", dictionary).length);
+    }
+
+    @Test
+    public void testMentionedUserIds() {
+        UserDictionary dictionary = new UserDictionary();
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        BitSet ids = Extract.getMentionedUserIds(tweets, dictionary);
+        List<String> names = new ArrayList<>();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            names.add(dictionary.name(id));
+        }
+        assertEquals("expected same users as getMentionedUsers", 3, names.size());
+        assertTrue("expected same users as getMentionedUsers",
+                names.containsAll(Arrays.asList("alyssa", "bbitdiddle", "ernie")));
+    }
+
+    @Test
+    public void testWrittenByIdCaseInsensitive() {
+        UserDictionary dictionary = new UserDictionary();
+        int alyssa = dictionary.intern("alyssa");
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        int[] authorIds = dictionary.internAuthors(tweets);
+        assertArrayEquals("expected one id per tweet", new int[] { alyssa, dictionary.id("bbitdiddle"), alyssa },
+                authorIds);
+        assertEquals("expected both of alyssa's tweets, in order", Arrays.asList(tweet1, tweet3),
+                Filter.writtenBy(tweets, authorIds, alyssa));
+        assertTrue("expected no tweets by a user who wrote none",
+                Filter.writtenBy(tweets, authorIds, dictionary.intern("ernie")).isEmpty());
+    }
+
+    @Test
+    public void testSharedGraphDictionary() {
+        UserDictionary dictionary = new UserDictionary();
+        int ernie = dictionary.intern("Ernie");
+        UserGraph graph = UserGraph.fromTweets(Arrays.asList(tweet1, tweet2), dictionary);
+        assertSame("expected shared dictionary", dictionary, graph.dictionary());
+        assertEquals("expected dictionary ids", ernie, graph.id("ernie"));
+        int alyssa = dictionary.id("alyssa");
+        assertTrue("expected edge by dictionary ids", graph.follows(alyssa, ernie));
+        assertEquals("expected every user", 3, graph.userCount());
+
+        int bert = dictionary.intern("bert");
+        assertEquals("expected user interned later absent from graph", -1, graph.id("bert"));
+        assertTrue("expected id beyond graph", bert >= graph.userCount());
+        assertNull("expected uppercase key absent from map view", graph.asMap().get("Alyssa"));
+        assertTrue("expected lowercase key in map view", graph.asMap().get("alyssa").contains("ernie"));
+    }
+}
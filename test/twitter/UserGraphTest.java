@@ -0,0 +1,161 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class UserGraphTest {
+
+    /*
+     * Testing strategy:
+     *   tweets: none, no mentions, mentions of self, repeated mentions,
+     *           mixed-case authors and mentions
+     *   map view: get, containsKey, iteration, equals against a HashMap
+     *   influencers: no users, distinct counts, ties, k = 0, k < n, k >= n
+     *   large random corpus compared with a straightforward HashMap build and
+     *   a full comparison sort
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test
+    public void testEmpty() {
+        UserGraph graph = UserGraph.fromTweets(new ArrayList<>());
+        assertEquals("expected no users", 0, graph.userCount());
+        assertTrue("expected empty map", graph.asMap().isEmpty());
+    }
+
+    @Test
+    public void testNoMentions() {
+        UserGraph graph = UserGraph.fromTweets(Arrays.asList(new Tweet(1, "alyssa", "no mentions here", d1)));
+        assertEquals("expected author as user", 1, graph.userCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertEquals("expected author with no followees",
+                Collections.singletonMap("alyssa", Collections.<String>emptySet()), graph.asMap());
+    }
+
+    @Test
+    public void testMentionsCaseFoldedAndDeduplicated() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "Alyssa", "@BBitdiddle @alyssa hi", d1),
+                new Tweet(2, "alyssa", "@bbitdiddle again, and @ernie", d1),
+                new Tweet(3, "ernie", "email bert@mit.edu", d1));
+        UserGraph graph = UserGraph.fromTweets(tweets);
+        Map<String, Set<String>> map = graph.asMap();
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "ernie")));
+        expected.put("bbitdiddle", Collections.<String>emptySet());
+        expected.put("ernie", Collections.<String>emptySet());
+        assertEquals("expected follows graph", expected, map);
+        assertEquals("expected every user as a key", 3, map.size());
+        assertTrue("expected key", map.containsKey("ernie"));
+        assertFalse("expected no key for unknown user", map.containsKey("bert"));
+        assertNull("expected no value for unknown user", map.get("bert"));
+        assertTrue("expected no followees", map.get("ernie").isEmpty());
+        assertTrue("expected followee", map.get("alyssa").contains("ernie"));
+        assertFalse("expected no self-follow", map.get("alyssa").contains("alyssa"));
+
+        assertEquals("expected ids in order of appearance", 0, graph.id("ALYSSA"));
+        assertEquals("expected unknown user", -1, graph.id("bert"));
+        assertTrue("expected edge", graph.follows(graph.id("alyssa"), graph.id("ernie")));
+        assertFalse("expected no reverse edge", graph.follows(graph.id("ernie"), graph.id("alyssa")));
+    }
+
+    @Test
+    public void testFromMapRoundTrip() {
+        Map<String, Set<String>> network = new HashMap<>();
+        network.put("A", new HashSet<>(Arrays.asList("b", "c")));
+        network.put("b", new HashSet<>(Arrays.asList("a")));
+        network.put("c", Collections.<String>emptySet());
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("a", new HashSet<>(Arrays.asList("b", "c")));
+        expected.put("b", new HashSet<>(Arrays.asList("a")));
+        expected.put("c", Collections.<String>emptySet());
+
+        UserGraph graph = UserGraph.fromMap(network);
+        assertEquals("expected folded network", expected, graph.asMap());
+        assertSame("expected view to unwrap", graph, UserGraph.fromMap(graph.asMap()));
+    }
+
+    @Test
+    public void testMatchesHashMapBuild() {
+        Random random = new Random(6005);
+        String[] users = new String[200];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = (i % 3 == 0 ? "User" : "user") + i;
+        }
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder text = new StringBuilder("text");
+            for (int m = random.nextInt(4); m > 0; m--) {
+                text.append(" @").append(users[random.nextInt(users.length)]);
+            }
+            tweets.add(new Tweet(i, users[random.nextInt(users.length)], text.toString(), d1));
+        }
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            String author = tweet.getAuthor().toLowerCase(Locale.ROOT);
+            Set<String> followees = expected.computeIfAbsent(author, a -> new HashSet<>());
+            for (String mention : Extract.getMentionedUsers(Arrays.asList(tweet))) {
+                expected.computeIfAbsent(mention, a -> new HashSet<>());
+                if (!mention.equals(author)) {
+                    followees.add(mention);
+                }
+            }
+        }
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        assertEquals("expected same graph", expected, followsGraph);
+
+        Map<String, Integer> followers = new HashMap<>();
+        for (String user : expected.keySet()) {
+            followers.put(user, 0);
+        }
+        for (Set<String> followees : expected.values()) {
+            for (String followee : followees) {
+                followers.put(followee, followers.get(followee) + 1);
+            }
+        }
+        List<String> ranked = new ArrayList<>(expected.keySet());
+        Collections.sort(ranked, (u, v) -> followers.get(u).equals(followers.get(v))
+                ? u.compareTo(v) : followers.get(v) - followers.get(u));
+        assertEquals("expected same ranking", ranked, SocialNetwork.influencers(followsGraph));
+        assertEquals("expected same ranking from a HashMap", ranked, SocialNetwork.influencers(expected));
+        for (int k : new int[] { 0, 1, 10, 199, 200, 1000 }) {
+            assertEquals("expected prefix of ranking", ranked.subList(0, Math.min(k, ranked.size())),
+                    SocialNetwork.influencers(followsGraph, k));
+        }
+    }
+
+    @Test
+    public void testInfluencersTiesAlphabetical() {
+        Map<String, Set<String>> network = new HashMap<>();
+        network.put("dave", new HashSet<>(Arrays.asList("Carol", "bob")));
+        network.put("erin", new HashSet<>(Arrays.asList("carol", "alice")));
+        network.put("bob", Collections.<String>emptySet());
+
+        List<String> expected = Arrays.asList("carol", "alice", "bob", "dave", "erin");
+        assertEquals("expected ranking", expected, SocialNetwork.influencers(network));
+        assertEquals("expected top 2", expected.subList(0, 2), SocialNetwork.influencers(network, 2));
+        assertEquals("expected everybody", expected, SocialNetwork.influencers(network, 10));
+        assertTrue("expected nobody", SocialNetwork.influencers(network, 0).isEmpty());
+        assertTrue("expected nobody in empty network",
+                SocialNetwork.influencers(new HashMap<>(), 3).isEmpty());
+    }
+}
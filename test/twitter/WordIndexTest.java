@@ -0,0 +1,66 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WordIndexTest {
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "  Talk\ttalk TALK  ", d1);
+
+    @Test
+    public void testContainingUnionInInputOrder() {
+        WordIndex index = WordIndex.of(Arrays.asList(tweet1, tweet2, tweet3));
+        assertEquals("expected all tweets once, in order", Arrays.asList(tweet1, tweet2, tweet3),
+                index.containing(Arrays.asList("#hype", "TALK", "much?", "talk")));
+        assertEquals("expected single word", Arrays.asList(tweet2), index.containing(Arrays.asList("#HYPE")));
+        assertTrue("expected no match for substring", index.containing(Arrays.asList("much")).isEmpty());
+        assertTrue("expected no match for empty words", index.containing(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalAppend() {
+        WordIndex index = new WordIndex();
+        index.add(tweet2);
+        assertEquals("expected one tweet", Arrays.asList(tweet2), index.containing(Arrays.asList("talk")));
+        index.addAll(Arrays.asList(tweet1, tweet3));
+        assertEquals("expected appended tweets", Arrays.asList(tweet2, tweet1, tweet3), index.containing(Arrays.asList("talk")));
+        assertEquals("expected size", 3, index.size());
+    }
+
+    @Test
+    public void testMatchesFilterContaining() {
+        Random random = new Random(6005);
+        String[] vocabulary = { "a", "B", "c", "dd", "Ee", "#f", "@g", "h!" };
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = random.nextInt(6); w > 0; w--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(random.nextBoolean() ? " " : "\n");
+            }
+            tweets.add(new Tweet(i, "user", text.toString(), d1));
+        }
+        WordIndex index = WordIndex.of(tweets);
+        for (int query = 0; query < 100; query++) {
+            List<String> words = new ArrayList<>();
+            for (int w = random.nextInt(4) + 1; w > 0; w--) {
+                words.add(vocabulary[random.nextInt(vocabulary.length)].toUpperCase());
+            }
+            assertEquals("expected same as Filter.containing for " + words,
+                    Filter.containing(tweets, words), index.containing(words));
+        }
+    }
+}
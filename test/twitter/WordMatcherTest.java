@@ -0,0 +1,95 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WordMatcherTest {
+
+    /*
+     * Reference semantics: the split-based implementation Filter.containing
+     * was originally written with.
+     */
+    private static boolean splitMatches(String text, List<String> words) {
+        Set<String> wordSet = new HashSet<>();
+        for (String word : words) {
+            wordSet.add(word.toLowerCase());
+        }
+        for (String tweetWord : text.toLowerCase().split("\\s+")) {
+            if (wordSet.contains(tweetWord)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testAsciiWords() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("Talk", "#HYPE"));
+        assertTrue("expected case-insensitive match", matcher.matchesAny("rivest TALK in 30 minutes"));
+        assertTrue("expected match at end", matcher.matchesAny("rivest talk in 30 minutes #hype"));
+        assertFalse("expected no substring match", matcher.matchesAny("talking about #hyped things"));
+        assertFalse("expected no match in empty text", matcher.matchesAny(""));
+    }
+
+    @Test
+    public void testSpaceCharacters() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("talk"));
+        assertTrue("expected tab and newline as spaces", matcher.matchesAny("\t\ntalk\r\n"));
+        assertFalse("expected no-break space inside a word", matcher.matchesAny("talk\u00a0now"));
+    }
+
+    @Test
+    public void testUnicodeFallback() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("CAF\u00c9", "\u212a"));
+        assertTrue("expected non-ASCII case folding", matcher.matchesAny("un caf\u00e9 noir"));
+        assertTrue("expected Kelvin sign to fold to k", matcher.matchesAny("just K"));
+        assertFalse("expected no match", matcher.matchesAny("cafe"));
+    }
+
+    @Test
+    public void testNoWords() {
+        assertFalse("expected no match", new WordMatcher(Arrays.<String>asList()).matchesAny("anything at all"));
+    }
+
+    @Test
+    public void testMatchesSplitImplementation() {
+        Random random = new Random(6005);
+        String alphabet = "aAbB \t\n\u00e9\u00c9\u03a3\u03c3\u0130i!#@";
+        for (int trial = 0; trial < 5000; trial++) {
+            List<String> words = Arrays.asList(randomWord(random, alphabet), randomWord(random, alphabet));
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(20); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertEquals("expected same as split for " + text + " " + words,
+                    splitMatches(text.toString(), words), new WordMatcher(words).matchesAny(text));
+
+            // surrounded by word characters that must not leak into the range
+            byte[] utf8 = ("a" + text + "b").getBytes(StandardCharsets.UTF_8);
+            assertEquals("expected UTF-8 match same as split for " + text + " " + words,
+                    splitMatches(text.toString(), words), new WordMatcher(words).matchesAny(utf8, 1, utf8.length - 2));
+        }
+    }
+
+    private static String randomWord(Random random, String alphabet) {
+        StringBuilder word = new StringBuilder();
+        while (word.length() < 1 + random.nextInt(3)) {
+            char c = alphabet.charAt(random.nextInt(alphabet.length()));
+            if (!Character.isWhitespace(c)) {
+                word.append(c);
+            }
+        }
+        return word.toString();
+    }
+}